@@ -5,6 +5,7 @@ import io from 'socket.io-client';
 
 const Dashboard = () => {
   const [dashboardData, setDashboardData] = useState(null);
+  const [loadingMore, setLoadingMore] = useState(false);
   const [onlineUsers, setOnlineUsers] = useState([]);
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState(null);
@@ -50,9 +51,11 @@ const Dashboard = () => {
     setLoading(false);
   };
 
-  const fetchDashboardData = async () => {
+  // The dashboard is keyset-paginated: nextCursor is the afterId of the following page, null on the last one
+  const fetchDashboardData = async (afterId = null) => {
+    const query = afterId != null ? `?afterId=${afterId}` : '';
     try {
-      const response = await fetch(`${USER_SERVICE_URL}/api/users/dashboard`, {
+      const response = await fetch(`${USER_SERVICE_URL}/api/users/dashboard${query}`, {
         headers: {
           'Authorization': `Bearer ${token}`,
           'Content-Type': 'application/json'
@@ -60,7 +63,9 @@ const Dashboard = () => {
       });
       if (response.ok) {
         const data = await response.json();
-        setDashboardData(data);
+        setDashboardData(prev => afterId != null && prev
+          ? { ...data, users: [...(prev.users || []), ...(data.users || [])] }
+          : data);
       } else {
         setError('Failed to fetch user data');
       }
@@ -69,6 +74,12 @@ const Dashboard = () => {
     }
   };
 
+  const loadMoreUsers = async () => {
+    setLoadingMore(true);
+    await fetchDashboardData(dashboardData.nextCursor);
+    setLoadingMore(false);
+  };
+
   const fetchOnlineUsers = async () => {
     try {
       const response = await fetch(`${CHAT_SERVICE_URL}/api/users/active`);
@@ -240,6 +251,11 @@ const Dashboard = () => {
               </div>
             ))}
           </div>
+          {dashboardData?.nextCursor != null && (
+            <button onClick={loadMoreUsers} disabled={loadingMore} style={styles.loadMoreButton}>
+              {loadingMore ? 'Loading...' : 'Load more users'}
+            </button>
+          )}
         </div>
 
         {onlineUsers.length === 0 && (
@@ -442,6 +458,16 @@ const styles = {
     fontSize: '12px',
     marginTop: '10px'
   },
+  loadMoreButton: {
+    display: 'block',
+    margin: '15px auto 0',
+    padding: '10px 20px',
+    backgroundColor: '#6c757d',
+    color: 'white',
+    border: 'none',
+    borderRadius: '4px',
+    cursor: 'pointer'
+  },
   button: {
     padding: '10px 20px',
     backgroundColor: '#007bff',
@@ -339,4 +339,41 @@ describe('Dashboard Component', () => {
       expect(screen.getByText('Failed to fetch dashboard data')).toBeInTheDocument();
     });
   });
+
+  test('loads the next page of users when Load more users is clicked', async () => {
+    mockAuthContext.username = 'viewer';
+    const user = (id) => ({
+      id,
+      username: `user${id}`,
+      email: `user${id}@example.com`,
+      active: true,
+      lastSeen: '2023-10-23T10:00:00'
+    });
+    const pages = {
+      '': { totalUsers: 2, activeUsers: 2, users: [user(1)], nextCursor: 1 },
+      '?afterId=1': { totalUsers: 2, activeUsers: 2, users: [user(2)], nextCursor: null }
+    };
+
+    fetch.mockImplementation((url) => {
+      const match = url.match(/\/api\/users\/dashboard(.*)$/);
+      return Promise.resolve({
+        ok: true,
+        json: () => Promise.resolve(match ? pages[match[1]] : { activeUsers: [] })
+      });
+    });
+
+    renderDashboard();
+
+    fireEvent.click(await screen.findByText('Load more users'));
+
+    await waitFor(() => {
+      expect(screen.getByText('user1')).toBeInTheDocument();
+      expect(screen.getByText('user2')).toBeInTheDocument();
+      expect(screen.queryByText('Load more users')).not.toBeInTheDocument();
+    });
+    expect(fetch).toHaveBeenCalledWith(
+      'http://localhost:8080/api/users/dashboard?afterId=1',
+      expect.anything()
+    );
+  });
 });
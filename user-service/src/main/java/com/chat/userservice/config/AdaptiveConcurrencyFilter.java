@@ -0,0 +1,138 @@
+package com.chat.userservice.config;
+
+import com.chat.userservice.util.AdaptiveConcurrencyLimiter;
+import com.chat.userservice.util.AdaptiveConcurrencyLimiter.Priority;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Sheds load by priority once the adaptive concurrency limit is reached:
+ * token validation keeps the whole limit, login/registration and other
+ * calls a share of it, dashboard-style reads the smallest share.
+ */
+@Component
+public class AdaptiveConcurrencyFilter extends OncePerRequestFilter {
+
+    // CPU-bound hashing is already bounded by BoundedPasswordEncoder, and its latency says
+    // nothing about the rest of the service, so these calls are not sampled
+    private static final Set<String> HASHING_ENDPOINTS = Set.of(
+        "POST /api/users/login",
+        "POST /api/users/register",
+        "POST /api/users/import",
+        "PUT /api/users/{username}/password"
+    );
+
+    @Value("${concurrency-limit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${concurrency-limit.initial:100}")
+    private int initialLimit;
+
+    @Value("${concurrency-limit.min:10}")
+    private int minLimit;
+
+    @Value("${concurrency-limit.max:1000}")
+    private int maxLimit;
+
+    @Value("${concurrency-limit.latency-tolerance:2.0}")
+    private double tolerance;
+
+    @Value("${concurrency-limit.backoff-ratio:0.9}")
+    private double backoffRatio;
+
+    @Value("${concurrency-limit.short-window:10}")
+    private int shortWindow;
+
+    @Value("${concurrency-limit.long-window:1000}")
+    private int longWindow;
+
+    @Value("${concurrency-limit.medium-share:0.8}")
+    private double mediumShare;
+
+    @Value("${concurrency-limit.low-share:0.5}")
+    private double lowShare;
+
+    private AdaptiveConcurrencyLimiter limiter;
+
+    @PostConstruct
+    void init() {
+        limiter = new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit, tolerance, backoffRatio,
+            shortWindow, longWindow, mediumShare, lowShare);
+    }
+
+    public AdaptiveConcurrencyLimiter getLimiter() {
+        return limiter;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = path(request);
+        // Health checks must answer under overload; SSE streams are long-lived by design
+        return !enabled || path.startsWith("/actuator/") || path.equals("/api/users/presence/stream");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        Priority priority = priorityOf(path(request));
+        if (!limiter.tryAcquire(priority)) {
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write("{\"error\":\"Service overloaded, please retry\"}");
+            return;
+        }
+        long start = System.nanoTime();
+        boolean sampled = false;
+        try {
+            filterChain.doFilter(request, response);
+            String endpoint = endpointOf(request);
+            if (!request.isAsyncStarted() && endpoint != null) {
+                limiter.release(endpoint, System.nanoTime() - start);
+                sampled = true;
+            }
+        } finally {
+            if (!sampled) {
+                // Failed, handed off to an async stream or not a latency signal: free the slot only
+                limiter.release();
+            }
+        }
+    }
+
+    static Priority priorityOf(String path) {
+        if (path.startsWith("/api/users/validate") || path.equals("/.well-known/jwks.json")) {
+            return Priority.HIGH;
+        }
+        if (path.startsWith("/api/users/dashboard") || path.startsWith("/api/users/export")) {
+            return Priority.LOW;
+        }
+        return Priority.MEDIUM;
+    }
+
+    // Method and route pattern, so every /{username}/password call shares one baseline;
+    // null for hashing calls and for requests rejected before they reached a handler
+    static String endpointOf(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (pattern == null) {
+            return null;
+        }
+        String endpoint = request.getMethod() + " " + pattern;
+        return HASHING_ENDPOINTS.contains(endpoint) ? null : endpoint;
+    }
+
+    private static String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+}
@@ -0,0 +1,84 @@
+package com.chat.userservice.config;
+
+import com.chat.userservice.service.InvalidationBus;
+import com.chat.userservice.service.TokenRevocationService;
+import com.chat.userservice.service.TokenVersionCache;
+import com.chat.userservice.service.UserCounters;
+import com.chat.userservice.service.UserEntityCache;
+import com.chat.userservice.service.UserVersion;
+import com.chat.userservice.service.UsernameIndex;
+import com.chat.userservice.util.JwtUtil;
+import com.chat.userservice.util.VerifiedTokenCache;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * What a replica evicts when a peer broadcasts an invalidation. The bus
+ * itself stays unaware of the caches it serves.
+ */
+@Configuration
+public class CacheInvalidationConfig {
+
+    @Autowired
+    private InvalidationBus invalidationBus;
+
+    @Autowired
+    private UserEntityCache userEntityCache;
+
+    @Autowired
+    private UserCounters userCounters;
+
+    @Autowired
+    private TokenVersionCache tokenVersionCache;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @Autowired
+    private UsernameIndex usernameIndex;
+
+    @Autowired
+    private UserVersion userVersion;
+
+    @PostConstruct
+    void registerHandlers() {
+        // A peer's user write changes what this replica renders, so it moves the local version too
+        invalidationBus.register(InvalidationBus.USERS, usernames -> {
+            userEntityCache.evictUsernames(usernames);
+            userVersion.bump();
+        }, () -> {
+            userEntityCache.evictAll();
+            userVersion.bump();
+        });
+
+        VerifiedTokenCache tokenCache = jwtUtil.getTokenCache();
+        invalidationBus.register(InvalidationBus.TOKENS, tokenCache::evictSubjects, tokenCache::clear);
+
+        invalidationBus.register(InvalidationBus.TOKEN_VERSIONS,
+            ids -> tokenVersionCache.evict(ids.stream().map(Long::valueOf).toList()),
+            tokenVersionCache::evictAll);
+
+        // Revocations add to the denylist rather than evict; a collapsed burst re-syncs from the table
+        invalidationBus.register(InvalidationBus.REVOKED_TOKENS,
+            tokenRevocationService::applyRevocations, tokenRevocationService::sync);
+
+        // Peers' registrations are added to the search index; keys are "<id>:<username>"
+        invalidationBus.register(InvalidationBus.USERNAMES, keys -> {
+            keys.forEach(key -> {
+                int separator = key.indexOf(':');
+                usernameIndex.add(Long.valueOf(key.substring(0, separator)), key.substring(separator + 1));
+            });
+            userVersion.bump();
+        }, () -> {
+            usernameIndex.rebuild();
+            userVersion.bump();
+        });
+
+        // Peers send counter deltas; only a burst that collapsed to "all" needs the two COUNT(*) queries
+        invalidationBus.register(InvalidationBus.COUNTERS, userCounters::applyDeltas, userCounters::reconcile);
+    }
+}
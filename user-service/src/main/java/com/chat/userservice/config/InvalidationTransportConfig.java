@@ -0,0 +1,27 @@
+package com.chat.userservice.config;
+
+import com.chat.userservice.service.InvalidationTransport;
+import com.chat.userservice.service.LoopbackInvalidationTransport;
+import com.chat.userservice.service.RedisInvalidationTransport;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class InvalidationTransportConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "invalidation.transport", havingValue = "redis", matchIfMissing = true)
+    public InvalidationTransport redisInvalidationTransport(
+            @Value("${invalidation.redis.url:redis://localhost:6379}") String redisUrl,
+            @Value("${invalidation.redis.channel:user-service:invalidations}") String channel) {
+        return new RedisInvalidationTransport(redisUrl, channel);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "invalidation.transport", havingValue = "loopback")
+    public LoopbackInvalidationTransport loopbackInvalidationTransport() {
+        return new LoopbackInvalidationTransport();
+    }
+}
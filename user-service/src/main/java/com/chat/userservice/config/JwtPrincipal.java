@@ -0,0 +1,39 @@
+package com.chat.userservice.config;
+
+import com.chat.userservice.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+
+import java.security.Principal;
+import java.util.Date;
+
+/**
+ * Verified JWT published by {@link JwtAuthenticationFilter}, so controllers
+ * can read the caller's claims without parsing the token again.
+ */
+public class JwtPrincipal implements Principal {
+    private final String token;
+    private final Claims claims;
+
+    public JwtPrincipal(String token, Claims claims) {
+        this.token = token;
+        this.claims = claims;
+    }
+
+    @Override
+    public String getName() { return claims.getSubject(); }
+
+    public String getUsername() { return claims.getSubject(); }
+
+    public String getToken() { return token; }
+
+    public Claims getClaims() { return claims; }
+
+    public Date getExpiration() { return claims.getExpiration(); }
+
+    public Long getUserId() { return claims.get(JwtUtil.USER_ID_CLAIM, Long.class); }
+
+    public Integer getTokenVersion() { return claims.get(JwtUtil.TOKEN_VERSION_CLAIM, Integer.class); }
+
+    @Override
+    public String toString() { return getName(); }
+}
@@ -0,0 +1,54 @@
+package com.chat.userservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+@ConfigurationProperties(prefix = "jwt.signing")
+public class JwtSigningProperties {
+
+    // ES256 signs with the first key below and refuses to start without one; HS256 signs with jwt.secret
+    private String algorithm = "HS256";
+
+    private List<Key> keys = new ArrayList<>();
+
+    // ES256 without keys: sign with a key generated at startup. Single-instance tests and local runs only.
+    private boolean generateEphemeralKey = false;
+
+    // ES256: when the service switched from HS256. Tokens without a kid are only accepted if they
+    // were issued before this and expire within one jwt.expiration of it; unset rejects them all.
+    private Instant legacyHmacUntil;
+
+    public String getAlgorithm() { return algorithm; }
+    public void setAlgorithm(String algorithm) { this.algorithm = algorithm; }
+
+    public List<Key> getKeys() { return keys; }
+    public void setKeys(List<Key> keys) { this.keys = keys; }
+
+    public boolean isGenerateEphemeralKey() { return generateEphemeralKey; }
+    public void setGenerateEphemeralKey(boolean generateEphemeralKey) { this.generateEphemeralKey = generateEphemeralKey; }
+
+    public Instant getLegacyHmacUntil() { return legacyHmacUntil; }
+    public void setLegacyHmacUntil(Instant legacyHmacUntil) { this.legacyHmacUntil = legacyHmacUntil; }
+
+    public static class Key {
+        private String kid;
+        // Base64 PKCS#8 DER (PEM armour allowed); omit for retired keys kept only for verification
+        private String privateKey;
+        // Base64 X.509 SubjectPublicKeyInfo DER (PEM armour allowed)
+        private String publicKey;
+
+        public String getKid() { return kid; }
+        public void setKid(String kid) { this.kid = kid; }
+
+        public String getPrivateKey() { return privateKey; }
+        public void setPrivateKey(String privateKey) { this.privateKey = privateKey; }
+
+        public String getPublicKey() { return publicKey; }
+        public void setPublicKey(String publicKey) { this.publicKey = publicKey; }
+    }
+}
@@ -0,0 +1,159 @@
+package com.chat.userservice.config;
+
+import com.chat.userservice.util.TokenBucketSketch;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Token-bucket throttling for POST /api/users/login, keyed by client IP and
+ * by username. Rejected attempts are answered here with 429 and never reach
+ * the controller, so they cost no password hashing.
+ */
+@Component
+public class LoginRateLimitFilter extends OncePerRequestFilter {
+    private static final String LOGIN_PATH = "/api/users/login";
+    private static final int MAX_BODY_BYTES = 8192;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${login-rate-limit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${login-rate-limit.username.capacity:5}")
+    private int usernameCapacity;
+
+    @Value("${login-rate-limit.username.refill-per-minute:5}")
+    private double usernameRefillPerMinute;
+
+    @Value("${login-rate-limit.ip.capacity:20}")
+    private int ipCapacity;
+
+    @Value("${login-rate-limit.ip.refill-per-minute:20}")
+    private double ipRefillPerMinute;
+
+    @Value("${login-rate-limit.sketch.depth:4}")
+    private int sketchDepth;
+
+    @Value("${login-rate-limit.sketch.width:131072}")
+    private int sketchWidth;
+
+    private TokenBucketSketch usernameBuckets;
+    private TokenBucketSketch ipBuckets;
+
+    @PostConstruct
+    void init() {
+        usernameBuckets = new TokenBucketSketch(usernameCapacity, usernameRefillPerMinute, sketchDepth, sketchWidth);
+        ipBuckets = new TokenBucketSketch(ipCapacity, ipRefillPerMinute, sketchDepth, sketchWidth);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return !enabled || !"POST".equals(request.getMethod()) || !LOGIN_PATH.equals(path);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        if (!ipBuckets.tryAcquire(request.getRemoteAddr())) {
+            reject(response, ipBuckets.retryAfterSeconds());
+            return;
+        }
+
+        byte[] body = request.getInputStream().readNBytes(MAX_BODY_BYTES + 1);
+        if (body.length > MAX_BODY_BYTES) {
+            response.sendError(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE);
+            return;
+        }
+        String username = extractUsername(body);
+        if (username != null && !usernameBuckets.tryAcquire(username.toLowerCase(Locale.ROOT))) {
+            reject(response, usernameBuckets.retryAfterSeconds());
+            return;
+        }
+
+        filterChain.doFilter(new CachedBodyRequest(request, body), response);
+    }
+
+    private String extractUsername(byte[] body) {
+        try {
+            JsonNode username = objectMapper.readTree(body).get("username");
+            return username != null && username.isTextual() ? username.asText() : null;
+        } catch (Exception e) {
+            // Malformed body; the controller will reject it
+            return null;
+        }
+    }
+
+    private void reject(HttpServletResponse response, long retryAfterSeconds) throws IOException {
+        response.setStatus(429);
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), Map.of("error", "Too many login attempts, please retry later"));
+    }
+
+    private static class CachedBodyRequest extends HttpServletRequestWrapper {
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() { return in.available() == 0; }
+
+                @Override
+                public boolean isReady() { return true; }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public int read() { return in.read(); }
+
+                @Override
+                public int read(byte[] b, int off, int len) { return in.read(b, off, len); }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public int getContentLength() { return body.length; }
+
+        @Override
+        public long getContentLengthLong() { return body.length; }
+    }
+}
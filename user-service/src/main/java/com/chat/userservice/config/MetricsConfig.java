@@ -0,0 +1,118 @@
+package com.chat.userservice.config;
+
+import com.chat.userservice.service.DashboardCache;
+import com.chat.userservice.service.InvalidationBus;
+import com.chat.userservice.service.TokenVersionCache;
+import com.chat.userservice.service.UserBriefCache;
+import com.chat.userservice.service.UserOutboxRelay;
+import com.chat.userservice.service.UsernameIndex;
+import com.chat.userservice.service.UserService;
+import com.chat.userservice.util.AdaptiveConcurrencyLimiter;
+import com.chat.userservice.util.JwtUtil;
+import com.chat.userservice.util.SingleFlight;
+import com.chat.userservice.util.TokenDenylist;
+import com.chat.userservice.util.VerifiedTokenCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+
+import jakarta.annotation.PostConstruct;
+
+@Configuration
+public class MetricsConfig {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private AdaptiveConcurrencyFilter adaptiveConcurrencyFilter;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserBriefCache userBriefCache;
+
+    @Autowired
+    private UserOutboxRelay outboxRelay;
+
+    @Autowired
+    private InvalidationBus invalidationBus;
+
+    @Autowired
+    private UsernameIndex usernameIndex;
+
+    @Autowired
+    private DashboardCache dashboardCache;
+
+    @Autowired
+    private TokenVersionCache tokenVersionCache;
+
+    @PostConstruct
+    void registerMetrics() {
+        VerifiedTokenCache tokenCache = jwtUtil.getTokenCache();
+        FunctionCounter.builder("jwt.cache.requests", tokenCache, VerifiedTokenCache::getHits)
+                .tag("result", "hit")
+                .description("Verified-token cache lookups")
+                .register(meterRegistry);
+        FunctionCounter.builder("jwt.cache.requests", tokenCache, VerifiedTokenCache::getMisses)
+                .tag("result", "miss")
+                .description("Verified-token cache lookups")
+                .register(meterRegistry);
+        Gauge.builder("jwt.cache.size", tokenCache, VerifiedTokenCache::size)
+                .description("Verified tokens currently cached")
+                .register(meterRegistry);
+
+        AdaptiveConcurrencyLimiter limiter = adaptiveConcurrencyFilter.getLimiter();
+        Gauge.builder("concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Current adaptive concurrency limit")
+                .register(meterRegistry);
+        Gauge.builder("concurrency.inflight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                .description("Requests currently admitted by the concurrency limiter")
+                .register(meterRegistry);
+
+        SingleFlight<String, ?> userLookups = userService.getUserLookups();
+        FunctionCounter.builder("user.lookup.requests", userLookups, SingleFlight::getLoads)
+                .tag("result", "loaded")
+                .description("Username lookups, by whether they queried or joined one in flight")
+                .register(meterRegistry);
+        FunctionCounter.builder("user.lookup.requests", userLookups, SingleFlight::getShared)
+                .tag("result", "shared")
+                .description("Username lookups, by whether they queried or joined one in flight")
+                .register(meterRegistry);
+
+        FunctionCounter.builder("outbox.published", outboxRelay, UserOutboxRelay::getPublished)
+                .description("User-change events published from the outbox")
+                .register(meterRegistry);
+        FunctionCounter.builder("outbox.failures", outboxRelay, UserOutboxRelay::getFailures)
+                .description("Outbox relay runs that failed to publish")
+                .register(meterRegistry);
+
+        FunctionCounter.builder("invalidation.messages", invalidationBus, InvalidationBus::getSent)
+                .tag("direction", "sent")
+                .description("Coalesced cache invalidation messages exchanged with peer replicas")
+                .register(meterRegistry);
+        FunctionCounter.builder("invalidation.messages", invalidationBus, InvalidationBus::getReceived)
+                .tag("direction", "received")
+                .description("Coalesced cache invalidation messages exchanged with peer replicas")
+                .register(meterRegistry);
+
+        Gauge.builder("jwt.revoked.size", jwtUtil.getDenylist(), TokenDenylist::size)
+                .description("Unexpired revoked tokens held in the denylist")
+                .register(meterRegistry);
+
+        Gauge.builder("users.search.index.size", usernameIndex, UsernameIndex::size)
+                .description("Usernames held in the prefix search index")
+                .register(meterRegistry);
+
+        CaffeineCacheMetrics.monitor(meterRegistry, userBriefCache.getCache(), "user.brief");
+        CaffeineCacheMetrics.monitor(meterRegistry, dashboardCache.getCache(), "dashboard.pages");
+        CaffeineCacheMetrics.monitor(meterRegistry, tokenVersionCache.getCache(), "users.token-versions");
+    }
+}
@@ -0,0 +1,28 @@
+package com.chat.userservice.config;
+
+import com.chat.userservice.service.InMemoryUserEventTransport;
+import com.chat.userservice.service.KafkaUserEventTransport;
+import com.chat.userservice.service.UserEventTransport;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class OutboxConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "outbox.transport", havingValue = "kafka", matchIfMissing = true)
+    public UserEventTransport kafkaUserEventTransport(
+            @Value("${outbox.kafka.bootstrap-servers:localhost:9092}") String bootstrapServers,
+            @Value("${outbox.kafka.topic:user-events}") String topic,
+            @Value("${outbox.kafka.send-timeout-ms:10000}") long sendTimeoutMs) {
+        return new KafkaUserEventTransport(bootstrapServers, topic, sendTimeoutMs);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "outbox.transport", havingValue = "memory")
+    public InMemoryUserEventTransport inMemoryUserEventTransport() {
+        return new InMemoryUserEventTransport();
+    }
+}
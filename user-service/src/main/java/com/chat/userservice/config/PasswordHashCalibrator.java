@@ -0,0 +1,89 @@
+package com.chat.userservice.config;
+
+import com.chat.userservice.util.PasswordHashing;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+/**
+ * Measures hash latency on this host and suggests the cost parameter
+ * (BCrypt strength or Argon2 iterations) closest to a target time per
+ * hash. Enabled with password-hashing.calibrate.enabled=true; the result
+ * is only logged, the configured cost is never changed automatically.
+ */
+@Component
+public class PasswordHashCalibrator implements ApplicationRunner {
+    private static final Logger log = LoggerFactory.getLogger(PasswordHashCalibrator.class);
+    private static final int SAMPLES = 3;
+
+    @Value("${password-hashing.calibrate.enabled:false}")
+    private boolean enabled;
+
+    @Value("${password-hashing.calibrate.target-ms:250}")
+    private long targetMs;
+
+    @Value("${password-hashing.algorithm:bcrypt}")
+    private String algorithm;
+
+    @Value("${password-hashing.argon2.memory-kb:16384}")
+    private int argon2MemoryKb;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+        Map<Integer, Long> timings = PasswordHashing.ARGON2.equalsIgnoreCase(algorithm)
+            ? calibrate(i -> PasswordHashing.argon2(argon2MemoryKb, i), 1, 16, targetMs)
+            : calibrate(PasswordHashing::bcrypt, 4, 16, targetMs);
+        log.info("Password hash calibration ({}, target {} ms): measured {} -> suggested cost {}",
+            algorithm, targetMs, timings, suggest(timings, targetMs));
+    }
+
+    /**
+     * Times each cost from min upwards (median of a few hashes) and stops at
+     * the first one slower than the target. Returns cost -> median millis.
+     */
+    public Map<Integer, Long> calibrate(IntFunction<PasswordEncoder> encoderForCost, int minCost, int maxCost,
+                                        long targetMs) {
+        Map<Integer, Long> timings = new LinkedHashMap<>();
+        for (int cost = minCost; cost <= maxCost; cost++) {
+            PasswordEncoder encoder = encoderForCost.apply(cost);
+            encoder.encode("warm-up");
+            long[] samples = new long[SAMPLES];
+            for (int i = 0; i < SAMPLES; i++) {
+                long start = System.nanoTime();
+                encoder.encode("calibration-password");
+                samples[i] = (System.nanoTime() - start) / 1_000_000;
+            }
+            Arrays.sort(samples);
+            timings.put(cost, samples[SAMPLES / 2]);
+            if (samples[SAMPLES / 2] > targetMs) {
+                break;
+            }
+        }
+        return timings;
+    }
+
+    public int suggest(Map<Integer, Long> timings, long targetMs) {
+        int best = timings.keySet().iterator().next();
+        long bestDistance = Long.MAX_VALUE;
+        for (Map.Entry<Integer, Long> timing : timings.entrySet()) {
+            long distance = Math.abs(timing.getValue() - targetMs);
+            if (distance < bestDistance) {
+                best = timing.getKey();
+                bestDistance = distance;
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,38 @@
+package com.chat.userservice.config;
+
+/**
+ * Opt-in for reads that can be served by a replica up to
+ * {@code datasource.routing.max-lag-ms} behind. Only read-only transactions
+ * run inside {@link #run} are routed. Everything else stays on the primary,
+ * including Spring Data's own read-only finders, so authentication, token
+ * versions and anything cached under a fresh version see every committed
+ * write.
+ */
+public final class ReplicaReads {
+
+    private static final ThreadLocal<Boolean> ACTIVE = new ThreadLocal<>();
+
+    @FunctionalInterface
+    public interface Reads<T, E extends Exception> {
+        T get() throws E;
+    }
+
+    private ReplicaReads() {
+    }
+
+    public static <T, E extends Exception> T run(Reads<T, E> reads) throws E {
+        if (Boolean.TRUE.equals(ACTIVE.get())) {
+            return reads.get();
+        }
+        ACTIVE.set(Boolean.TRUE);
+        try {
+            return reads.get();
+        } finally {
+            ACTIVE.remove();
+        }
+    }
+
+    static boolean isActive() {
+        return Boolean.TRUE.equals(ACTIVE.get());
+    }
+}
@@ -0,0 +1,136 @@
+package com.chat.userservice.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends read-only transactions that opted in through {@link ReplicaReads}
+ * round-robin to healthy replicas and everything else to the primary. Must
+ * sit behind a
+ * LazyConnectionDataSourceProxy: the read-only flag is only bound to the
+ * transaction after the transaction manager has asked for a connection.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    static final String PRIMARY = "primary";
+
+    private final DataSource primary;
+    private final Map<String, DataSource> replicas;
+    private final Map<String, ReplicaStatus> statuses = new LinkedHashMap<>();
+    private final String lagQuery;
+    private final long maxLagMs;
+    private final AtomicInteger next = new AtomicInteger();
+    private volatile List<String> available = List.of();
+
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, String lagQuery, long maxLagMs) {
+        this.primary = primary;
+        this.replicas = replicas;
+        this.lagQuery = lagQuery == null || lagQuery.isBlank() ? null : lagQuery;
+        this.maxLagMs = maxLagMs;
+        Map<Object, Object> targets = new HashMap<>(replicas);
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        for (String name : replicas.keySet()) {
+            statuses.put(name, new ReplicaStatus("UNKNOWN", -1, null));
+        }
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || !ReplicaReads.isActive()) {
+            return PRIMARY;
+        }
+        List<String> pool = available;
+        if (pool.isEmpty()) {
+            return PRIMARY;
+        }
+        return pool.get(Math.floorMod(next.getAndIncrement(), pool.size()));
+    }
+
+    // Replicas that are down or lagging drop out of rotation; reads fall back to the primary
+    public synchronized void checkReplicas() {
+        List<String> healthy = new ArrayList<>();
+        for (Map.Entry<String, DataSource> replica : replicas.entrySet()) {
+            ReplicaStatus status = probe(replica.getValue());
+            ReplicaStatus previous = statuses.put(replica.getKey(), status);
+            if (previous != null && !previous.state.equals(status.state)) {
+                log.info("Replica {} is now {} (lag {} ms{})", replica.getKey(), status.state, status.lagMs,
+                        status.error == null ? "" : ", " + status.error);
+            }
+            if ("UP".equals(status.state)) {
+                healthy.add(replica.getKey());
+            }
+        }
+        available = List.copyOf(healthy);
+    }
+
+    private ReplicaStatus probe(DataSource dataSource) {
+        try (Connection connection = dataSource.getConnection()) {
+            if (!connection.isValid(2)) {
+                return new ReplicaStatus("DOWN", -1, "connection not valid");
+            }
+            if (lagQuery == null) {
+                return new ReplicaStatus("UP", 0, null);
+            }
+            try (Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery(lagQuery)) {
+                long lagMs = rs.next() ? (long) rs.getDouble(1) : 0;
+                return new ReplicaStatus(lagMs > maxLagMs ? "STALE" : "UP", lagMs, null);
+            }
+        } catch (Exception e) {
+            return new ReplicaStatus("DOWN", -1, e.getMessage());
+        }
+    }
+
+    public List<String> getAvailableReplicas() {
+        return available;
+    }
+
+    public synchronized Map<String, Object> describe() {
+        Map<String, Object> details = new LinkedHashMap<>();
+        statuses.forEach((name, status) -> {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("status", status.state);
+            entry.put("lagMs", status.lagMs);
+            if (status.error != null) {
+                entry.put("error", status.error);
+            }
+            details.put(name, entry);
+        });
+        return details;
+    }
+
+    @Override
+    public void close() {
+        for (DataSource dataSource : replicas.values()) {
+            closePool(dataSource);
+        }
+        closePool(primary);
+    }
+
+    private static void closePool(DataSource dataSource) {
+        if (dataSource instanceof HikariDataSource hikari) {
+            hikari.close();
+        }
+    }
+
+    private record ReplicaStatus(String state, long lagMs, String error) {
+    }
+}
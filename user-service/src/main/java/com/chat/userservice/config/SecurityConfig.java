@@ -1,12 +1,15 @@
 package com.chat.userservice.config;
 
+import com.chat.userservice.util.BoundedPasswordEncoder;
+import com.chat.userservice.util.PasswordHashing;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -22,9 +25,37 @@ public class SecurityConfig {
     @Autowired
     private JwtAuthenticationFilter jwtAuthenticationFilter;
     
+    @Autowired
+    private LoginRateLimitFilter loginRateLimitFilter;
+    
+    @Autowired
+    private AdaptiveConcurrencyFilter adaptiveConcurrencyFilter;
+    
+    @Value("${password-hashing.threads:0}")
+    private int hashingThreads;
+    
+    @Value("${password-hashing.queue-capacity:64}")
+    private int hashingQueueCapacity;
+    
+    @Value("${password-hashing.algorithm:bcrypt}")
+    private String hashingAlgorithm;
+    
+    @Value("${password-hashing.bcrypt.strength:10}")
+    private int bcryptStrength;
+    
+    @Value("${password-hashing.argon2.memory-kb:16384}")
+    private int argon2MemoryKb;
+    
+    @Value("${password-hashing.argon2.iterations:2}")
+    private int argon2Iterations;
+    
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry) {
+        // 0 means one hashing thread per core
+        int threads = hashingThreads > 0 ? hashingThreads : Runtime.getRuntime().availableProcessors();
+        PasswordEncoder encoder = PasswordHashing.createEncoder(
+            hashingAlgorithm, bcryptStrength, argon2MemoryKb, argon2Iterations);
+        return new BoundedPasswordEncoder(encoder, threads, hashingQueueCapacity, meterRegistry);
     }
     
     @Bean
@@ -34,9 +65,17 @@ public class SecurityConfig {
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(auth -> auth
                 .requestMatchers("/api/users/register", "/api/users/login").permitAll()
+                .requestMatchers("/api/users/validate/batch").permitAll()
+                .requestMatchers("/.well-known/jwks.json").permitAll()
                 .requestMatchers("/actuator/health").permitAll()
+                // Bulk onboarding creates accounts, so it is not open to every chat user
+                .requestMatchers("/api/users/import").hasRole("ADMIN")
+                // Every account's email address; same audience as import
+                .requestMatchers("/api/users/export").hasRole("ADMIN")
                 .anyRequest().authenticated()
             )
+            .addFilterBefore(adaptiveConcurrencyFilter, UsernamePasswordAuthenticationFilter.class)
+            .addFilterBefore(loginRateLimitFilter, UsernamePasswordAuthenticationFilter.class)
             .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
         return http.build();
     }
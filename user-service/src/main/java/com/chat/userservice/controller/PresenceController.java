@@ -0,0 +1,55 @@
+package com.chat.userservice.controller;
+
+import com.chat.userservice.config.JwtPrincipal;
+import com.chat.userservice.entity.User;
+import com.chat.userservice.service.PresenceRegistry;
+import com.chat.userservice.service.UserService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/api/users/presence")
+@CrossOrigin(origins = "http://localhost:3000")
+public class PresenceController {
+    @Autowired
+    private PresenceRegistry presenceRegistry;
+    
+    @Autowired
+    private UserService userService;
+    
+    @PostMapping("/heartbeat")
+    public ResponseEntity<?> heartbeat(@AuthenticationPrincipal JwtPrincipal principal) {
+        if (principal == null) {
+            return ResponseEntity.status(401).body(Map.of("error", "Invalid token"));
+        }
+        Long userId = principal.getUserId();
+        if (userId == null) {
+            Optional<User> user = userService.getUserByUsername(principal.getUsername());
+            if (user.isEmpty()) {
+                return ResponseEntity.status(404).body(Map.of("error", "User not found"));
+            }
+            userId = user.get().getId();
+        }
+        presenceRegistry.heartbeat(userId, principal.getUsername());
+        return ResponseEntity.ok(Map.of("online", true));
+    }
+    
+    @GetMapping
+    public ResponseEntity<?> getOnlineUsers() {
+        List<Map<String, Object>> online = presenceRegistry.snapshot();
+        return ResponseEntity.ok(Map.of("online", online, "count", online.size()));
+    }
+    
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream() {
+        return presenceRegistry.subscribe();
+    }
+}
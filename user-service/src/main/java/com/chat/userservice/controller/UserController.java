@@ -1,11 +1,33 @@
 package com.chat.userservice.controller;
 
+import com.chat.userservice.config.JwtPrincipal;
+import com.chat.userservice.config.ReplicaReads;
+import com.chat.userservice.dto.UserSummary;
 import com.chat.userservice.entity.User;
+import com.chat.userservice.service.DashboardCache;
+import com.chat.userservice.service.PresenceRegistry;
+import com.chat.userservice.service.TokenRevocationService;
+import com.chat.userservice.service.UserExportService;
+import com.chat.userservice.service.UserImportService;
 import com.chat.userservice.service.UserService;
+import com.chat.userservice.service.UserVersion;
+import com.chat.userservice.service.UsernameIndex;
 import com.chat.userservice.util.JwtUtil;
+import com.chat.userservice.util.PasswordHashingRejectedException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -18,9 +40,54 @@ public class UserController {
     @Autowired
     private UserService userService;
     
+    @Autowired
+    private UserExportService userExportService;
+    
+    @Autowired
+    private UserImportService userImportService;
+    
+    @Autowired
+    private PresenceRegistry presenceRegistry;
+    
     @Autowired
     private JwtUtil jwtUtil;
     
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+    
+    @Autowired
+    private UsernameIndex usernameIndex;
+    
+    @Autowired
+    private UserVersion userVersion;
+    
+    @Autowired
+    private DashboardCache dashboardCache;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Value("${jwt.batch.max-size:500}")
+    private int maxBatchSize;
+    
+    @Value("${users.batch.max-size:200}")
+    private int maxLookupSize;
+    
+    @Value("${users.search.default-limit:10}")
+    private int searchDefaultLimit;
+    
+    @Value("${users.search.max-limit:50}")
+    private int searchMaxLimit;
+    
+    @Value("${import.max-size:50000}")
+    private int maxImportSize;
+    
+    @Value("${dashboard.page.default-size:100}")
+    private int dashboardPageSize;
+    
+    @Value("${dashboard.page.max-size:500}")
+    private int dashboardMaxPageSize;
+    
     @PostMapping("/register")
     public ResponseEntity<?> register(@RequestBody Map<String, String> request) {
         try {
@@ -33,11 +100,22 @@ public class UserController {
             response.put("message", "User registered successfully");
             response.put("userId", user.getId());
             return ResponseEntity.ok(response);
+        } catch (PasswordHashingRejectedException e) {
+            throw e;
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
     }
     
+    @PostMapping("/import")
+    public ResponseEntity<?> importUsers(@RequestBody List<Map<String, String>> request) {
+        if (request.size() > maxImportSize) {
+            return ResponseEntity.badRequest()
+                .body(Map.of("error", "At most " + maxImportSize + " users per import"));
+        }
+        return ResponseEntity.ok(userImportService.importUsers(request));
+    }
+    
     @PostMapping("/login")
     public ResponseEntity<?> login(@RequestBody Map<String, String> request) {
         Optional<User> user = userService.authenticateUser(
@@ -46,8 +124,10 @@ public class UserController {
         );
         
         if (user.isPresent()) {
-            String token = jwtUtil.generateToken(user.get().getUsername());
+            String token = jwtUtil.generateToken(
+                user.get().getUsername(), user.get().getId(), user.get().getTokenVersion());
             userService.updateUserActivity(user.get().getUsername(), true);
+            presenceRegistry.heartbeat(user.get().getId(), user.get().getUsername());
             
             Map<String, Object> response = new HashMap<>();
             response.put("token", token);
@@ -56,47 +136,169 @@ public class UserController {
             return ResponseEntity.ok(response);
         }
         
-        return ResponseEntity.badRequest().body(Map.of("error", "Invalid credentials"));
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "Invalid credentials"));
     }
     
     @PostMapping("/logout")
-    public ResponseEntity<?> logout(@RequestHeader("Authorization") String token) {
+    public ResponseEntity<?> logout(@AuthenticationPrincipal JwtPrincipal principal) {
         try {
-            String jwt = token.replace("Bearer ", "");
-            String username = jwtUtil.extractUsername(jwt);
+            String username = principal.getUsername();
+            tokenRevocationService.revoke(principal.getToken(), principal.getClaims());
             userService.updateUserActivity(username, false);
+            Long userId = principal.getUserId();
+            if (userId == null) {
+                userId = userService.getUserByUsername(username).map(User::getId).orElse(null);
+            }
+            if (userId != null) {
+                presenceRegistry.remove(userId);
+            }
             return ResponseEntity.ok(Map.of("message", "Logged out successfully"));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", "Invalid token"));
         }
     }
     
+    @PostMapping("/logout-all")
+    public ResponseEntity<?> logoutEverywhere(@AuthenticationPrincipal JwtPrincipal principal) {
+        try {
+            String username = principal.getUsername();
+            // Legacy tokens carry no version, so the caller's own token is also revoked outright
+            tokenRevocationService.revoke(principal.getToken(), principal.getClaims());
+            if (!userService.revokeAllTokens(username)) {
+                return ResponseEntity.badRequest().body(Map.of("error", "User not found"));
+            }
+            userService.updateUserActivity(username, false);
+            Long userId = principal.getUserId();
+            if (userId == null) {
+                userId = userService.getUserByUsername(username).map(User::getId).orElse(null);
+            }
+            if (userId != null) {
+                presenceRegistry.remove(userId);
+            }
+            return ResponseEntity.ok(Map.of("message", "Logged out of all sessions"));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Invalid token"));
+        }
+    }
+    
+    @GetMapping("/search")
+    public ResponseEntity<?> searchUsers(@RequestParam String prefix,
+                                         @RequestParam(required = false) Integer limit) {
+        if (prefix.isBlank()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "prefix is required"));
+        }
+        int size = limit == null ? searchDefaultLimit : Math.max(1, Math.min(limit, searchMaxLimit));
+        return ResponseEntity.ok(Map.of("users", usernameIndex.search(prefix.trim(), size)));
+    }
+    
+    @GetMapping("/batch")
+    public ResponseEntity<?> lookupUsers(
+            @RequestParam(required = false) List<Long> ids,
+            @RequestParam(required = false) List<String> usernames) {
+        return lookup(ids, usernames);
+    }
+    
+    @PostMapping("/batch")
+    public ResponseEntity<?> lookupUsers(@RequestBody Map<String, List<Object>> request) {
+        List<Long> ids = new ArrayList<>();
+        List<String> usernames = new ArrayList<>();
+        try {
+            for (Object id : request.getOrDefault("ids", List.of())) {
+                ids.add(Long.valueOf(id.toString()));
+            }
+        } catch (NumberFormatException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "ids must be numeric"));
+        }
+        for (Object username : request.getOrDefault("usernames", List.of())) {
+            usernames.add(String.valueOf(username));
+        }
+        return lookup(ids, usernames);
+    }
+    
+    private ResponseEntity<?> lookup(List<Long> ids, List<String> usernames) {
+        ids = ids == null ? List.of() : ids;
+        usernames = usernames == null ? List.of() : usernames;
+        if (ids.size() + usernames.size() > maxLookupSize) {
+            return ResponseEntity.badRequest().body(Map.of("error", "At most " + maxLookupSize + " ids and usernames per request"));
+        }
+        return ResponseEntity.ok(Map.of("users", userService.lookupUsers(ids, usernames)));
+    }
+    
     @GetMapping("/dashboard")
-    public ResponseEntity<?> getDashboard() {
-        List<User> users = userService.getAllUsers();
+    public ResponseEntity<?> getDashboard(
+            @RequestParam(defaultValue = "0") long afterId,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) Boolean active,
+            WebRequest request) {
+        int pageSize = limit == null ? dashboardPageSize : limit;
+        if (pageSize < 1 || pageSize > dashboardMaxPageSize) {
+            return ResponseEntity.badRequest().body(Map.of("error", "limit must be between 1 and " + dashboardMaxPageSize));
+        }
+        // Read the version before the data, so a concurrent write can only make the tag older than the body
+        long version = userVersion.current();
+        String page = afterId + ":" + pageSize + ":" + active;
+        String etag = userVersion.etag(version, page);
+        CacheControl revalidate = CacheControl.noCache().cachePrivate();
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(revalidate).build();
+        }
+        byte[] body = dashboardCache.get(version, page, () -> renderDashboard(afterId, pageSize, active));
+        return ResponseEntity.ok()
+            .eTag(etag)
+            .cacheControl(revalidate)
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(body);
+    }
+    
+    private byte[] renderDashboard(long afterId, int pageSize, Boolean active) {
+        List<UserSummary> users = userService.getUserSummaries(afterId, pageSize, active);
         Map<String, Object> response = new HashMap<>();
         response.put("totalUsers", userService.getTotalUsers());
         response.put("activeUsers", userService.getActiveUsers());
-        response.put("users", users.stream().map(user -> {
-            Map<String, Object> userMap = new HashMap<>();
-            userMap.put("id", user.getId());
-            userMap.put("username", user.getUsername());
-            userMap.put("email", user.getEmail());
-            userMap.put("active", user.isActive());
-            userMap.put("lastSeen", user.getLastSeen());
-            return userMap;
-        }).toList());
-        return ResponseEntity.ok(response);
+        response.put("users", users);
+        // Cursor for the next page; absent once the last page has been served
+        response.put("nextCursor", users.size() == pageSize ? users.get(users.size() - 1).getId() : null);
+        try {
+            return objectMapper.writeValueAsBytes(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize dashboard", e);
+        }
+    }
+    
+    @GetMapping("/stats")
+    public ResponseEntity<?> getStats() {
+        // Served from the in-memory counters, so it is safe to poll
+        return ResponseEntity.ok(Map.of(
+            "totalUsers", userService.getTotalUsers(),
+            "activeUsers", userService.getActiveUsers()
+        ));
+    }
+    
+    // An export is a point-in-time snapshot anyway, so a replica a few seconds behind can serve it
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportUsers(@RequestParam(defaultValue = "ndjson") String format) {
+        if ("csv".equalsIgnoreCase(format)) {
+            return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("text/csv"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"users.csv\"")
+                .body(out -> ReplicaReads.run(() -> userExportService.writeCsv(out)));
+        }
+        if ("ndjson".equalsIgnoreCase(format)) {
+            return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"users.ndjson\"")
+                .body(out -> ReplicaReads.run(() -> userExportService.writeNdjson(out)));
+        }
+        return ResponseEntity.badRequest().build();
     }
     
     @PutMapping("/{username}/password")
     public ResponseEntity<?> updatePassword(
             @PathVariable String username,
             @RequestBody Map<String, String> request,
-            @RequestHeader("Authorization") String token) {
+            @AuthenticationPrincipal JwtPrincipal principal) {
         try {
-            String jwt = token.replace("Bearer ", "");
-            String currentUser = jwtUtil.extractUsername(jwt);
+            String currentUser = principal.getUsername();
             
             // Verify user can only change their own password
             if (!currentUser.equals(username)) {
@@ -115,25 +317,39 @@ public class UserController {
             } else {
                 return ResponseEntity.badRequest().body(Map.of("error", "Failed to update password"));
             }
+        } catch (PasswordHashingRejectedException e) {
+            throw e;
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", "Invalid token or request"));
         }
     }
     
     @GetMapping("/validate")
-    public ResponseEntity<?> validateToken(@RequestHeader("Authorization") String token) {
+    public ResponseEntity<?> validateToken(@AuthenticationPrincipal JwtPrincipal principal) {
         try {
-            String jwt = token.replace("Bearer ", "");
-            if (jwtUtil.isTokenValid(jwt)) {
-                String username = jwtUtil.extractUsername(jwt);
-                Optional<User> userOpt = userService.getUserByUsername(username);
-                if (userOpt.isPresent()) {
-                    User user = userOpt.get();
-                    return ResponseEntity.ok(Map.of(
-                        "valid", true, 
-                        "username", username,
-                        "userId", user.getId()
-                    ));
+            if (principal != null) {
+                String username = principal.getUsername();
+                Long userId = principal.getUserId();
+                Integer tokenVersion = principal.getTokenVersion();
+                if (userId != null && tokenVersion != null) {
+                    // Enriched token: answer from the claims unless the version is stale
+                    if (userService.isTokenVersionCurrent(userId, tokenVersion)) {
+                        return ResponseEntity.ok(Map.of(
+                            "valid", true,
+                            "username", username,
+                            "userId", userId
+                        ));
+                    }
+                } else {
+                    Optional<User> userOpt = userService.getUserByUsername(username);
+                    if (userOpt.isPresent()) {
+                        User user = userOpt.get();
+                        return ResponseEntity.ok(Map.of(
+                            "valid", true, 
+                            "username", username,
+                            "userId", user.getId()
+                        ));
+                    }
                 }
             }
         } catch (Exception e) {
@@ -141,4 +357,23 @@ public class UserController {
         }
         return ResponseEntity.ok(Map.of("valid", false));
     }
+    
+    @PostMapping("/validate/batch")
+    public ResponseEntity<?> validateTokens(@RequestBody Map<String, List<String>> request) {
+        List<String> tokens = request.get("tokens");
+        if (tokens == null) {
+            return ResponseEntity.badRequest().body(Map.of("error", "tokens is required"));
+        }
+        if (tokens.size() > maxBatchSize) {
+            return ResponseEntity.badRequest().body(Map.of("error", "At most " + maxBatchSize + " tokens per request"));
+        }
+        return ResponseEntity.ok(Map.of("results", userService.validateTokens(tokens)));
+    }
+    
+    @ExceptionHandler(PasswordHashingRejectedException.class)
+    public ResponseEntity<?> hashingRejected(PasswordHashingRejectedException e) {
+        return ResponseEntity.status(503)
+            .header(HttpHeaders.RETRY_AFTER, "1")
+            .body(Map.of("error", e.getMessage()));
+    }
 }
@@ -0,0 +1,26 @@
+package com.chat.userservice.dto;
+
+import java.util.Map;
+import java.util.Set;
+
+// One coalesced batch of evictions, keyed by cache name
+public class CacheInvalidation {
+    private String origin;
+    private Map<String, Set<String>> keys;
+
+    public CacheInvalidation() {
+    }
+
+    public CacheInvalidation(String origin, Map<String, Set<String>> keys) {
+        this.origin = origin;
+        this.keys = keys;
+    }
+
+    public String getOrigin() { return origin; }
+
+    public void setOrigin(String origin) { this.origin = origin; }
+
+    public Map<String, Set<String>> getKeys() { return keys; }
+
+    public void setKeys(Map<String, Set<String>> keys) { this.keys = keys; }
+}
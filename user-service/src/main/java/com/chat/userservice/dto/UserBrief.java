@@ -0,0 +1,26 @@
+package com.chat.userservice.dto;
+
+import java.time.LocalDateTime;
+
+// Public view of a user for feeds and mentions; no email, password or token state
+public class UserBrief {
+    private final Long id;
+    private final String username;
+    private final boolean active;
+    private final LocalDateTime lastSeen;
+
+    public UserBrief(Long id, String username, boolean active, LocalDateTime lastSeen) {
+        this.id = id;
+        this.username = username;
+        this.active = active;
+        this.lastSeen = lastSeen;
+    }
+
+    public Long getId() { return id; }
+
+    public String getUsername() { return username; }
+
+    public boolean isActive() { return active; }
+
+    public LocalDateTime getLastSeen() { return lastSeen; }
+}
@@ -0,0 +1,55 @@
+package com.chat.userservice.dto;
+
+import com.chat.userservice.entity.User;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.Instant;
+
+// Published on the user-events topic; consumers evict whatever they cache for the user
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class UserChangeEvent {
+    public static final String REGISTERED = "USER_REGISTERED";
+    public static final String PASSWORD_CHANGED = "PASSWORD_CHANGED";
+    public static final String ACTIVITY_CHANGED = "ACTIVITY_CHANGED";
+    public static final String TOKENS_REVOKED = "TOKENS_REVOKED";
+
+    private final String type;
+    private final Long userId;
+    private final String username;
+    private final Boolean active;
+    private final Instant occurredAt;
+
+    public UserChangeEvent(String type, Long userId, String username, Boolean active, Instant occurredAt) {
+        this.type = type;
+        this.userId = userId;
+        this.username = username;
+        this.active = active;
+        this.occurredAt = occurredAt;
+    }
+
+    public static UserChangeEvent registered(User user) {
+        return new UserChangeEvent(REGISTERED, user.getId(), user.getUsername(), null, Instant.now());
+    }
+
+    public static UserChangeEvent passwordChanged(User user) {
+        return new UserChangeEvent(PASSWORD_CHANGED, user.getId(), user.getUsername(), null, Instant.now());
+    }
+
+    public static UserChangeEvent tokensRevoked(User user) {
+        return new UserChangeEvent(TOKENS_REVOKED, user.getId(), user.getUsername(), null, Instant.now());
+    }
+
+    public static UserChangeEvent activityChanged(Long userId, String username, boolean active) {
+        return new UserChangeEvent(ACTIVITY_CHANGED, userId, username, active, Instant.now());
+    }
+
+    public String getType() { return type; }
+
+    public Long getUserId() { return userId; }
+
+    public String getUsername() { return username; }
+
+    public Boolean getActive() { return active; }
+
+    public Instant getOccurredAt() { return occurredAt; }
+}
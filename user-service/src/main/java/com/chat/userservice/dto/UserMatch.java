@@ -0,0 +1,15 @@
+package com.chat.userservice.dto;
+
+public class UserMatch {
+    private final Long id;
+    private final String username;
+
+    public UserMatch(Long id, String username) {
+        this.id = id;
+        this.username = username;
+    }
+
+    public Long getId() { return id; }
+
+    public String getUsername() { return username; }
+}
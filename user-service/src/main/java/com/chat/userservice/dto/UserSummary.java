@@ -0,0 +1,29 @@
+package com.chat.userservice.dto;
+
+import java.time.LocalDateTime;
+
+public class UserSummary {
+    private final Long id;
+    private final String username;
+    private final String email;
+    private final boolean active;
+    private final LocalDateTime lastSeen;
+
+    public UserSummary(Long id, String username, String email, boolean active, LocalDateTime lastSeen) {
+        this.id = id;
+        this.username = username;
+        this.email = email;
+        this.active = active;
+        this.lastSeen = lastSeen;
+    }
+
+    public Long getId() { return id; }
+
+    public String getUsername() { return username; }
+
+    public String getEmail() { return email; }
+
+    public boolean isActive() { return active; }
+
+    public LocalDateTime getLastSeen() { return lastSeen; }
+}
@@ -1,16 +1,57 @@
 package com.chat.userservice.repository;
 
+import com.chat.userservice.dto.UserBrief;
+import com.chat.userservice.dto.UserSummary;
 import com.chat.userservice.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
-    Optional<User> findByUsername(String username);
+// Declared queries are reads; read-only alone keeps them on the primary, see ReplicaReads
+@Transactional(readOnly = true)
+public interface UserRepository extends JpaRepository<User, Long>, UserRepositoryCustom {
     Optional<User> findByEmail(String email);
     
     @Query("SELECT COUNT(u) FROM User u WHERE u.active = true")
     long countActiveUsers();
+    
+    @Query("SELECT new com.chat.userservice.dto.UserSummary(u.id, u.username, u.email, u.active, u.lastSeen) " +
+           "FROM User u WHERE u.id > :afterId ORDER BY u.id")
+    List<UserSummary> findSummariesAfter(@Param("afterId") long afterId, Pageable pageable);
+    
+    @Query("SELECT new com.chat.userservice.dto.UserSummary(u.id, u.username, u.email, u.active, u.lastSeen) " +
+           "FROM User u WHERE u.id > :afterId AND u.active = :active ORDER BY u.id")
+    List<UserSummary> findSummariesAfter(@Param("afterId") long afterId, @Param("active") boolean active,
+                                         Pageable pageable);
+    
+    @Query("SELECT u FROM User u WHERE u.id IN :ids OR u.username IN :usernames")
+    List<User> findByIdInOrUsernameIn(@Param("ids") Collection<Long> ids,
+                                      @Param("usernames") Collection<String> usernames);
+    
+    @Query("SELECT new com.chat.userservice.dto.UserBrief(u.id, u.username, u.active, u.lastSeen) " +
+           "FROM User u WHERE u.id IN :ids OR u.username IN :usernames")
+    List<UserBrief> findBriefsByIdInOrUsernameIn(@Param("ids") Collection<Long> ids,
+                                                 @Param("usernames") Collection<String> usernames);
+    
+    @Query("SELECT u.id, u.username FROM User u WHERE u.id > :afterId ORDER BY u.id")
+    List<Object[]> findIdsAndUsernamesAfter(@Param("afterId") long afterId, Pageable pageable);
+    
+    // Expects lower-cased arguments; matches the lower() unique indexes from V2
+    @Query("SELECT u.username, u.email FROM User u WHERE lower(u.username) IN :usernames OR lower(u.email) IN :emails")
+    List<Object[]> findTakenUsernamesAndEmails(@Param("usernames") Collection<String> usernames,
+                                               @Param("emails") Collection<String> emails);
+    
+    // Only lands while the old hash is still current, so a concurrent password change wins; touches no other column
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.password = :hash WHERE u.id = :id AND u.password = :oldHash")
+    int replacePasswordHash(@Param("id") Long id, @Param("oldHash") String oldHash, @Param("hash") String hash);
 }
@@ -0,0 +1,8 @@
+package com.chat.userservice.repository;
+
+import com.chat.userservice.entity.User;
+import java.util.Optional;
+
+public interface UserRepositoryCustom {
+    Optional<User> findByUsername(String username);
+}
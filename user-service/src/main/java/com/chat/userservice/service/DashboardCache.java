@@ -0,0 +1,32 @@
+package com.chat.userservice.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+/**
+ * Serialized dashboard pages, keyed by user version and page parameters.
+ * Pages of an old version are never asked for again and age out by size.
+ */
+@Component
+public class DashboardCache {
+    private final Cache<String, byte[]> pages;
+
+    public DashboardCache(@Value("${dashboard.cache.max-entries:256}") long maxEntries) {
+        this.pages = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .recordStats()
+                .build();
+    }
+
+    public byte[] get(long version, String page, Supplier<byte[]> render) {
+        return pages.get(version + ":" + page, key -> render.get());
+    }
+
+    public Cache<String, byte[]> getCache() {
+        return pages;
+    }
+}
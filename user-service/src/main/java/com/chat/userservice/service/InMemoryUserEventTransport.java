@@ -0,0 +1,23 @@
+package com.chat.userservice.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Keeps published messages in memory; used by tests and local runs without Kafka
+public class InMemoryUserEventTransport implements UserEventTransport {
+    private final List<OutboxMessage> published = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(List<OutboxMessage> messages) {
+        published.addAll(messages);
+    }
+
+    public List<OutboxMessage> getPublished() {
+        return new ArrayList<>(published);
+    }
+
+    public void clear() {
+        published.clear();
+    }
+}
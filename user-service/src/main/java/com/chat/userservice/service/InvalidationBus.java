@@ -0,0 +1,179 @@
+package com.chat.userservice.service;
+
+import com.chat.userservice.dto.CacheInvalidation;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Broadcasts key-level cache evictions to the other user-service replicas.
+ * Callers evict their own local state and broadcast the keys; broadcasts
+ * are merged per cache and sent as one message per coalescing interval,
+ * so a burst of writes costs peers one round of evictions. Broadcasts made
+ * inside a transaction are only queued once it commits.
+ */
+@Component
+public class InvalidationBus {
+    private static final Logger log = LoggerFactory.getLogger(InvalidationBus.class);
+
+    public static final String USERS = "users";
+    public static final String TOKENS = "tokens";
+    public static final String TOKEN_VERSIONS = "token-versions";
+    public static final String COUNTERS = "counters";
+    public static final String REVOKED_TOKENS = "revoked-tokens";
+    public static final String USERNAMES = "usernames";
+
+    // Stands for every key of a cache; also sent when a burst outgrows max-keys-per-cache
+    public static final String ALL_KEYS = "*";
+
+    private final InvalidationTransport transport;
+    private final ObjectMapper objectMapper;
+    private final int maxKeysPerCache;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final Map<String, Handler> handlers = new ConcurrentHashMap<>();
+    private Map<String, Set<String>> pending = new HashMap<>();
+    private final Object pendingLock = new Object();
+
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder received = new LongAdder();
+
+    public InvalidationBus(InvalidationTransport transport, ObjectMapper objectMapper,
+                           @Value("${invalidation.max-keys-per-cache:1000}") int maxKeysPerCache) {
+        this.transport = transport;
+        this.objectMapper = objectMapper;
+        this.maxKeysPerCache = maxKeysPerCache;
+    }
+
+    @PostConstruct
+    void start() {
+        transport.subscribe(this::receive);
+    }
+
+    /** Registers what this replica does when a peer invalidates {@code cache}. */
+    public void register(String cache, Consumer<Collection<String>> evict, Runnable evictAll) {
+        handlers.put(cache, new Handler(evict, evictAll));
+    }
+
+    public void broadcast(String cache, String key) {
+        broadcast(cache, List.of(key));
+    }
+
+    public void broadcastAll(String cache) {
+        broadcast(cache, List.of(ALL_KEYS));
+    }
+
+    public void broadcast(String cache, Collection<String> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            List<String> copy = List.copyOf(keys);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(cache, copy);
+                }
+            });
+        } else {
+            enqueue(cache, keys);
+        }
+    }
+
+    private void enqueue(String cache, Collection<String> keys) {
+        synchronized (pendingLock) {
+            Set<String> queued = pending.computeIfAbsent(cache, c -> new HashSet<>());
+            if (queued.contains(ALL_KEYS)) {
+                return;
+            }
+            queued.addAll(keys);
+            if (queued.contains(ALL_KEYS) || queued.size() > maxKeysPerCache) {
+                queued.clear();
+                queued.add(ALL_KEYS);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${invalidation.coalesce-ms:50}")
+    public void flush() {
+        Map<String, Set<String>> batch;
+        synchronized (pendingLock) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = pending;
+            pending = new HashMap<>();
+        }
+        try {
+            transport.publish(objectMapper.writeValueAsString(new CacheInvalidation(nodeId, batch)));
+            sent.increment();
+        } catch (JsonProcessingException | RuntimeException e) {
+            // Peers fall back on their cache TTLs
+            log.warn("Failed to broadcast invalidations for {}", batch.keySet(), e);
+        }
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+    }
+
+    void receive(String message) {
+        CacheInvalidation invalidation;
+        try {
+            invalidation = objectMapper.readValue(message, CacheInvalidation.class);
+        } catch (JsonProcessingException e) {
+            log.warn("Dropping malformed invalidation message", e);
+            return;
+        }
+        if (nodeId.equals(invalidation.getOrigin()) || invalidation.getKeys() == null) {
+            return;
+        }
+        received.increment();
+        invalidation.getKeys().forEach((cache, keys) -> {
+            Handler handler = handlers.get(cache);
+            if (handler == null || keys.isEmpty()) {
+                return;
+            }
+            try {
+                if (keys.contains(ALL_KEYS)) {
+                    handler.evictAll.run();
+                } else {
+                    handler.evict.accept(keys);
+                }
+            } catch (RuntimeException e) {
+                log.warn("Failed to apply invalidation of {} keys in {}", keys.size(), cache, e);
+            }
+        });
+    }
+
+    public long getSent() {
+        return sent.sum();
+    }
+
+    public long getReceived() {
+        return received.sum();
+    }
+
+    private record Handler(Consumer<Collection<String>> evict, Runnable evictAll) {
+    }
+}
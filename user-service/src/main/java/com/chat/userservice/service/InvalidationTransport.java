@@ -0,0 +1,14 @@
+package com.chat.userservice.service;
+
+import java.util.function.Consumer;
+
+/**
+ * Fan-out channel between user-service replicas. Delivery is best effort;
+ * every replica also receives its own messages.
+ */
+public interface InvalidationTransport {
+
+    void publish(String message);
+
+    void subscribe(Consumer<String> listener);
+}
@@ -0,0 +1,24 @@
+package com.chat.userservice.service;
+
+public class OutboxMessage {
+    private final long id;
+    private final String key;
+    private final String type;
+    private final String payload;
+
+    public OutboxMessage(long id, String key, String type, String payload) {
+        this.id = id;
+        this.key = key;
+        this.type = type;
+        this.payload = payload;
+    }
+
+    public long getId() { return id; }
+
+    // Partition key; events for one user stay in order
+    public String getKey() { return key; }
+
+    public String getType() { return type; }
+
+    public String getPayload() { return payload; }
+}
@@ -0,0 +1,149 @@
+package com.chat.userservice.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter.SseEventBuilder;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Fans presence changes out to Server-Sent Events subscribers. Each
+ * subscriber has its own bounded queue, drained in order on a small shared
+ * pool, so a slow client only delays itself; one that falls max-queued-events
+ * behind is closed and resubscribes for a fresh snapshot. The snapshot is
+ * taken and the subscriber registered under the lock publish holds, so a
+ * change is either in the snapshot or queued after it. PresenceRegistry
+ * calls in while holding its own lock, never the other way round.
+ */
+@Component
+public class PresenceBroadcaster {
+
+    @Value("${presence.stream-timeout-ms:1800000}")
+    private long streamTimeoutMs;
+
+    @Value("${presence.max-queued-events:256}")
+    private int maxQueuedEvents;
+
+    private final Object lock = new Object();
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final ExecutorService sender;
+
+    public PresenceBroadcaster(@Value("${presence.sender-threads:4}") int senderThreads) {
+        AtomicInteger threads = new AtomicInteger();
+        this.sender = Executors.newFixedThreadPool(senderThreads, r -> {
+            Thread thread = new Thread(r, "presence-sse-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public SseEmitter subscribe(Supplier<List<Map<String, Object>>> snapshot) {
+        return subscribe(new SseEmitter(streamTimeoutMs), snapshot);
+    }
+
+    SseEmitter subscribe(SseEmitter emitter, Supplier<List<Map<String, Object>>> snapshot) {
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        synchronized (lock) {
+            subscriber.offer(SseEmitter.event().name("snapshot").data(Map.of("online", snapshot.get())));
+            subscribers.add(subscriber);
+        }
+        return emitter;
+    }
+
+    public void publish(Map<String, Object> delta) {
+        synchronized (lock) {
+            for (Subscriber subscriber : subscribers) {
+                subscriber.offer(SseEmitter.event().name("presence").data(delta));
+            }
+        }
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        sender.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+    }
+
+    private final class Subscriber {
+        final SseEmitter emitter;
+        private final Deque<SseEventBuilder> queue = new ArrayDeque<>();
+        private boolean scheduled;
+        private boolean closed;
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        // Never blocks: a send stuck on this client holds the emitter's monitor, so even completing runs on the pool
+        void offer(SseEventBuilder event) {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                if (queue.size() >= maxQueuedEvents) {
+                    close();
+                    sender.execute(emitter::complete);
+                    return;
+                }
+                queue.add(event);
+                if (scheduled) {
+                    return;
+                }
+                scheduled = true;
+            }
+            sender.execute(this::sendNext);
+        }
+
+        // One event per task, so subscribers take turns on the pool
+        private void sendNext() {
+            SseEventBuilder event;
+            synchronized (this) {
+                event = closed ? null : queue.poll();
+                if (event == null) {
+                    scheduled = false;
+                    return;
+                }
+            }
+            try {
+                emitter.send(event);
+            } catch (Exception e) {
+                close();
+                emitter.completeWithError(e);
+                return;
+            }
+            synchronized (this) {
+                if (queue.isEmpty()) {
+                    scheduled = false;
+                    return;
+                }
+            }
+            sender.execute(this::sendNext);
+        }
+
+        private void close() {
+            synchronized (this) {
+                closed = true;
+                queue.clear();
+            }
+            subscribers.remove(this);
+        }
+    }
+}
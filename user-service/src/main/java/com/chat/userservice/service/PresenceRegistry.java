@@ -0,0 +1,138 @@
+package com.chat.userservice.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Who is online right now, keyed by user id. Each heartbeat pushes the
+ * user's deadline ttl-ms ahead; expiry is driven by a hashed timing wheel
+ * with one slot per tick, so a tick only inspects the users that could
+ * have expired in it rather than scanning everyone. Deltas are published
+ * under the same lock as the change they describe, so subscribers see them
+ * in the order the changes happened; subscribing takes that lock first too.
+ */
+@Component
+public class PresenceRegistry {
+
+    @Autowired
+    private PresenceBroadcaster broadcaster;
+
+    @Value("${presence.ttl-ms:30000}")
+    private long ttlMs;
+
+    @Value("${presence.tick-ms:1000}")
+    private long tickMs;
+
+    private final Object lock = new Object();
+    private final Map<Long, Entry> online = new HashMap<>();
+    private List<Set<Long>> wheel;
+    private int ttlTicks;
+    private long currentTick;
+
+    @PostConstruct
+    void init() {
+        ttlTicks = (int) Math.max(1, (ttlMs + tickMs - 1) / tickMs);
+        // One more slot than the TTL so a deadline never wraps onto the slot being expired
+        wheel = new ArrayList<>(ttlTicks + 1);
+        for (int i = 0; i <= ttlTicks; i++) {
+            wheel.add(new HashSet<>());
+        }
+    }
+
+    // Lock order is registry, then broadcaster; publish only queues, so holding the lock stays cheap
+    public SseEmitter subscribe() {
+        synchronized (lock) {
+            return broadcaster.subscribe(this::snapshot);
+        }
+    }
+
+    public void heartbeat(Long userId, String username) {
+        synchronized (lock) {
+            Entry entry = online.get(userId);
+            boolean cameOnline = entry == null;
+            if (cameOnline) {
+                entry = new Entry(username);
+                online.put(userId, entry);
+            } else {
+                wheel.get(slot(entry.deadline)).remove(userId);
+            }
+            entry.deadline = currentTick + ttlTicks;
+            wheel.get(slot(entry.deadline)).add(userId);
+            if (cameOnline) {
+                broadcaster.publish(delta(userId, username, true));
+            }
+        }
+    }
+
+    public void remove(Long userId) {
+        synchronized (lock) {
+            Entry entry = online.remove(userId);
+            if (entry != null) {
+                wheel.get(slot(entry.deadline)).remove(userId);
+                broadcaster.publish(delta(userId, entry.username, false));
+            }
+        }
+    }
+
+    @Scheduled(fixedRateString = "${presence.tick-ms:1000}")
+    public void tick() {
+        synchronized (lock) {
+            currentTick++;
+            Set<Long> bucket = wheel.get(slot(currentTick));
+            for (Long userId : bucket) {
+                Entry entry = online.remove(userId);
+                if (entry != null) {
+                    broadcaster.publish(delta(userId, entry.username, false));
+                }
+            }
+            bucket.clear();
+        }
+    }
+
+    public boolean isOnline(Long userId) {
+        synchronized (lock) {
+            return online.containsKey(userId);
+        }
+    }
+
+    public List<Map<String, Object>> snapshot() {
+        synchronized (lock) {
+            List<Map<String, Object>> users = new ArrayList<>(online.size());
+            online.forEach((userId, entry) -> users.add(Map.of("userId", userId, "username", entry.username)));
+            return users;
+        }
+    }
+
+    private int slot(long tick) {
+        return (int) (tick % wheel.size());
+    }
+
+    private static Map<String, Object> delta(Long userId, String username, boolean isOnline) {
+        return Map.of(
+            "userId", userId,
+            "username", username,
+            "online", isOnline,
+            "timestamp", System.currentTimeMillis()
+        );
+    }
+
+    private static final class Entry {
+        final String username;
+        long deadline;
+
+        Entry(String username) {
+            this.username = username;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.chat.userservice.service;
+
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.pubsub.RedisPubSubAdapter;
+import io.lettuce.core.pubsub.StatefulRedisPubSubConnection;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Redis pub/sub transport. Messages published while a replica is
+ * disconnected are lost; cache TTLs bound how long that replica stays stale.
+ */
+public class RedisInvalidationTransport implements InvalidationTransport, DisposableBean {
+    private final RedisClient client;
+    private final StatefulRedisConnection<String, String> publisher;
+    private final StatefulRedisPubSubConnection<String, String> subscriber;
+    private final String channel;
+
+    // Handlers may query the database, so they must not run on Lettuce's event loop
+    private final ExecutorService receiver = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "cache-invalidation");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public RedisInvalidationTransport(String redisUrl, String channel) {
+        this.client = RedisClient.create(redisUrl);
+        this.publisher = client.connect();
+        this.subscriber = client.connectPubSub();
+        this.channel = channel;
+    }
+
+    @Override
+    public void publish(String message) {
+        publisher.async().publish(channel, message);
+    }
+
+    @Override
+    public void subscribe(Consumer<String> listener) {
+        subscriber.addListener(new RedisPubSubAdapter<>() {
+            @Override
+            public void message(String ch, String message) {
+                receiver.execute(() -> listener.accept(message));
+            }
+        });
+        subscriber.sync().subscribe(channel);
+    }
+
+    @Override
+    public void destroy() {
+        subscriber.close();
+        publisher.close();
+        client.shutdown(Duration.ZERO, Duration.ofSeconds(2));
+        receiver.shutdownNow();
+    }
+}
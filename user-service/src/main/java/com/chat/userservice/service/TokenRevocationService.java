@@ -0,0 +1,91 @@
+package com.chat.userservice.service;
+
+import com.chat.userservice.util.JwtUtil;
+import com.chat.userservice.util.VerifiedTokenCache;
+import io.jsonwebtoken.Claims;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.util.Collection;
+
+/**
+ * Single-token revocation for logout. Revocations are written to
+ * revoked_tokens, applied to the local denylist and broadcast to peers;
+ * a periodic sync by id picks up anything a replica missed or loaded
+ * before it started. Rows and buckets go away once the tokens expire.
+ */
+@Service
+public class TokenRevocationService {
+    private static final Logger log = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private InvalidationBus invalidationBus;
+
+    private volatile long lastSyncedId;
+
+    public boolean revoke(String token, Claims claims) {
+        if (claims.getExpiration() == null) {
+            return false;
+        }
+        long expiresAt = claims.getExpiration().getTime();
+        String key = VerifiedTokenCache.digest(token);
+        if (expiresAt <= System.currentTimeMillis() || jwtUtil.getDenylist().isRevoked(key, expiresAt)) {
+            return false;
+        }
+        jdbcTemplate.update("INSERT INTO revoked_tokens (token_hash, expires_at) VALUES (?, ?)",
+            key, new Timestamp(expiresAt));
+        apply(key, expiresAt);
+        invalidationBus.broadcast(InvalidationBus.REVOKED_TOKENS, expiresAt + ":" + key);
+        return true;
+    }
+
+    // Keys are "<expiresAt>:<digest>", as broadcast by revoke
+    public void applyRevocations(Collection<String> keys) {
+        for (String entry : keys) {
+            int separator = entry.indexOf(':');
+            if (separator > 0) {
+                apply(entry.substring(separator + 1), Long.parseLong(entry.substring(0, separator)));
+            }
+        }
+    }
+
+    private void apply(String key, long expiresAt) {
+        jwtUtil.getDenylist().revoke(key, expiresAt);
+        jwtUtil.getTokenCache().evictByDigest(key);
+    }
+
+    @PostConstruct
+    @Scheduled(fixedDelayString = "${jwt.revocation.sync-interval-ms:5000}",
+               initialDelayString = "${jwt.revocation.sync-interval-ms:5000}")
+    public void sync() {
+        jdbcTemplate.query(
+            "SELECT id, token_hash, expires_at FROM revoked_tokens WHERE id > ? AND expires_at > ? ORDER BY id",
+            rs -> {
+                apply(rs.getString("token_hash"), rs.getTimestamp("expires_at").getTime());
+                lastSyncedId = Math.max(lastSyncedId, rs.getLong("id"));
+            },
+            lastSyncedId, new Timestamp(System.currentTimeMillis()));
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation.purge-interval-ms:600000}")
+    public void purgeExpired() {
+        jwtUtil.getDenylist().dropExpired();
+        int deleted = jdbcTemplate.update("DELETE FROM revoked_tokens WHERE expires_at <= ?",
+            new Timestamp(System.currentTimeMillis()));
+        if (deleted > 0) {
+            log.debug("Purged {} expired token revocations", deleted);
+        }
+    }
+}
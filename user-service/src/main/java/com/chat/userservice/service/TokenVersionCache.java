@@ -0,0 +1,54 @@
+package com.chat.userservice.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+
+/**
+ * Last known token version per user id, so /validate can skip the DB.
+ * Versions only ever grow, so a lookup that read the row before a bump
+ * committed cannot overwrite the bumped value. Entries expire after
+ * {@code ttl-ms}, which bounds how long a replica that missed an
+ * invalidation keeps accepting revoked tokens.
+ */
+@Component
+public class TokenVersionCache {
+    private final Cache<Long, Integer> versions;
+
+    public TokenVersionCache(@Value("${users.token-versions.max-size:100000}") long maxSize,
+                             @Value("${users.token-versions.ttl-ms:60000}") long ttlMs) {
+        this.versions = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .recordStats()
+                .build();
+    }
+
+    public Integer get(Long userId) {
+        return versions.getIfPresent(userId);
+    }
+
+    public void update(Long userId, int version) {
+        versions.asMap().merge(userId, version, Math::max);
+    }
+
+    public void evict(Long userId) {
+        versions.invalidate(userId);
+    }
+
+    public void evict(Collection<Long> userIds) {
+        versions.invalidateAll(userIds);
+    }
+
+    public void evictAll() {
+        versions.invalidateAll();
+    }
+
+    public Cache<Long, Integer> getCache() {
+        return versions;
+    }
+}
@@ -0,0 +1,186 @@
+package com.chat.userservice.service;
+
+import com.chat.userservice.dto.UserChangeEvent;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind buffer for login/logout activity. Updates for the same user
+ * are merged in memory (latest wins) and written as JDBC batches on a
+ * fixed interval, when the buffer fills up, and on shutdown.
+ */
+@Component
+public class UserActivityBuffer {
+    private static final Logger log = LoggerFactory.getLogger(UserActivityBuffer.class);
+
+    // Only matches rows whose flag actually flips, so the update count drives the active counter
+    private static final String UPDATE_ACTIVE =
+        "UPDATE users SET active = ?, last_seen = ? WHERE username = ? AND active <> ?";
+    private static final String UPDATE_LAST_SEEN =
+        "UPDATE users SET last_seen = ? WHERE username = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserCounters userCounters;
+
+    @Autowired
+    private UserEntityCache userEntityCache;
+
+    @Autowired
+    private UserOutbox userOutbox;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private InvalidationBus invalidationBus;
+
+    @Autowired
+    private UserVersion userVersion;
+
+    @Value("${activity.max-buffer-size:10000}")
+    private int maxBufferSize;
+
+    private final Map<String, PendingActivity> pending = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    public void record(String username, boolean active) {
+        PendingActivity update = new PendingActivity(username, active, LocalDateTime.now());
+        pending.merge(username, update, (old, latest) -> latest.lastSeen.isBefore(old.lastSeen) ? old : latest);
+        if (pending.size() >= maxBufferSize && flushLock.tryLock()) {
+            try {
+                drain();
+            } finally {
+                flushLock.unlock();
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${activity.flush-interval-ms:1000}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            drain();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+    }
+
+    public int size() {
+        return pending.size();
+    }
+
+    private void drain() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<PendingActivity> batch = new ArrayList<>(pending.size());
+        for (String username : pending.keySet()) {
+            PendingActivity update = pending.remove(username);
+            if (update != null) {
+                batch.add(update);
+            }
+        }
+        try {
+            write(batch);
+        } catch (RuntimeException e) {
+            // Put the updates back unless a newer one arrived meanwhile
+            for (PendingActivity update : batch) {
+                pending.putIfAbsent(update.username, update);
+            }
+            log.warn("Failed to flush {} activity updates; will retry", batch.size(), e);
+        }
+    }
+
+    private void write(List<PendingActivity> batch) {
+        // The flag flips and their outbox events commit together; counters and caches follow the commit
+        List<PendingActivity> flipped = transactionTemplate.execute(status -> writeBatches(batch));
+        long activeDelta = 0;
+        for (PendingActivity update : flipped) {
+            userCounters.activityChanged(!update.active, update.active);
+            activeDelta += update.active ? 1 : -1;
+        }
+
+        List<String> usernames = new ArrayList<>(batch.size());
+        for (PendingActivity update : batch) {
+            usernames.add(update.username);
+        }
+        userEntityCache.evictUsernames(usernames);
+        userVersion.bump();
+        invalidationBus.broadcast(InvalidationBus.USERS, usernames);
+        if (activeDelta != 0) {
+            invalidationBus.broadcast(InvalidationBus.COUNTERS, userCounters.delta(0, activeDelta));
+        }
+    }
+
+    private List<PendingActivity> writeBatches(List<PendingActivity> batch) {
+        List<Object[]> activeArgs = new ArrayList<>(batch.size());
+        for (PendingActivity update : batch) {
+            activeArgs.add(new Object[] {update.active, Timestamp.valueOf(update.lastSeen), update.username, update.active});
+        }
+        int[] counts = jdbcTemplate.batchUpdate(UPDATE_ACTIVE, activeArgs);
+
+        List<PendingActivity> flipped = new ArrayList<>();
+        List<Object[]> lastSeenArgs = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            PendingActivity update = batch.get(i);
+            if (counts[i] > 0) {
+                flipped.add(update);
+            } else {
+                // Flag was already in the requested state (or the driver gave no count)
+                lastSeenArgs.add(new Object[] {Timestamp.valueOf(update.lastSeen), update.username});
+            }
+        }
+        if (!lastSeenArgs.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPDATE_LAST_SEEN, lastSeenArgs);
+        }
+
+        if (!flipped.isEmpty()) {
+            List<String> flippedUsernames = new ArrayList<>(flipped.size());
+            for (PendingActivity update : flipped) {
+                flippedUsernames.add(update.username);
+            }
+            Map<String, Long> ids = userEntityCache.findIds(flippedUsernames);
+            List<UserChangeEvent> events = new ArrayList<>(flipped.size());
+            for (PendingActivity update : flipped) {
+                events.add(UserChangeEvent.activityChanged(ids.get(update.username), update.username, update.active));
+            }
+            userOutbox.appendAll(events);
+        }
+        return flipped;
+    }
+
+    private static final class PendingActivity {
+        final String username;
+        final boolean active;
+        final LocalDateTime lastSeen;
+
+        PendingActivity(String username, boolean active, LocalDateTime lastSeen) {
+            this.username = username;
+            this.active = active;
+            this.lastSeen = lastSeen;
+        }
+    }
+}
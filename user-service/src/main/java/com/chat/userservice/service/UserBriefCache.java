@@ -0,0 +1,77 @@
+package com.chat.userservice.service;
+
+import com.chat.userservice.dto.UserBrief;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+
+/**
+ * Compact user views for batch lookups, keyed by id with a username index.
+ * Entries expire on the same schedule as the second-level cache and are
+ * evicted together with it by UserEntityCache. Misses are loaded through
+ * ReplicaReads, and a replica may still return a row from before an
+ * eviction, so with routing enabled entries live no longer than the
+ * replica lag that routing tolerates.
+ */
+@Component
+public class UserBriefCache {
+    private final Cache<Long, UserBrief> byId;
+    private final Cache<String, Long> idsByUsername;
+
+    @Autowired
+    public UserBriefCache(@Value("${users.batch.cache.max-size:50000}") long maxSize,
+                          @Value("${users.batch.cache.ttl-ms:60000}") long ttlMs,
+                          @Value("${datasource.routing.enabled:false}") boolean replicaReads,
+                          @Value("${datasource.routing.max-lag-ms:5000}") long maxLagMs) {
+        this(maxSize, replicaReads ? Math.min(ttlMs, maxLagMs) : ttlMs);
+    }
+
+    public UserBriefCache(long maxSize, long ttlMs) {
+        this.byId = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .recordStats()
+                .build();
+        this.idsByUsername = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .build();
+    }
+
+    public UserBrief get(Long id) {
+        return byId.getIfPresent(id);
+    }
+
+    public UserBrief getByUsername(String username) {
+        Long id = idsByUsername.getIfPresent(username);
+        return id == null ? null : byId.getIfPresent(id);
+    }
+
+    public void put(UserBrief brief) {
+        byId.put(brief.getId(), brief);
+        idsByUsername.put(brief.getUsername(), brief.getId());
+    }
+
+    public void evictUsernames(Collection<String> usernames) {
+        for (String username : usernames) {
+            Long id = idsByUsername.getIfPresent(username);
+            if (id != null) {
+                byId.invalidate(id);
+            }
+        }
+    }
+
+    public void evictAll() {
+        byId.invalidateAll();
+        idsByUsername.invalidateAll();
+    }
+
+    public Cache<Long, UserBrief> getCache() {
+        return byId;
+    }
+}
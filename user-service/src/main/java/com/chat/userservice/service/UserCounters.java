@@ -0,0 +1,94 @@
+package com.chat.userservice.service;
+
+import com.chat.userservice.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory total/active user counts, maintained by UserService writes and
+ * periodically reconciled against the database to correct drift from
+ * races, other replicas or direct SQL. Peers' writes arrive as broadcast
+ * deltas, so keeping replicas in step costs no queries.
+ */
+@Component
+public class UserCounters {
+    private static final Logger log = LoggerFactory.getLogger(UserCounters.class);
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserVersion userVersion;
+
+    private final LongAdder totalUsers = new LongAdder();
+    private final LongAdder activeUsers = new LongAdder();
+    // Equal deltas would merge in the bus's per-cache key set, so each one carries a sequence number
+    private final AtomicLong deltaSequence = new AtomicLong();
+
+    @PostConstruct
+    @Scheduled(fixedDelayString = "${counters.reconcile-interval-ms:60000}",
+               initialDelayString = "${counters.reconcile-interval-ms:60000}")
+    public void reconcile() {
+        long total = userRepository.count();
+        long active = userRepository.countActiveUsers();
+        long totalDrift = total - totalUsers.sum();
+        long activeDrift = active - activeUsers.sum();
+        totalUsers.add(totalDrift);
+        activeUsers.add(activeDrift);
+        if (totalDrift != 0 || activeDrift != 0) {
+            userVersion.bump();
+            log.debug("Reconciled user counters (total drift {}, active drift {})", totalDrift, activeDrift);
+        }
+    }
+
+    public void userRegistered() {
+        totalUsers.increment();
+    }
+
+    public void usersRegistered(int count) {
+        totalUsers.add(count);
+    }
+
+    public void activityChanged(boolean wasActive, boolean active) {
+        if (wasActive != active) {
+            activeUsers.add(active ? 1 : -1);
+        }
+    }
+
+    /** A counter change to broadcast to peers, keyed as {@code <seq>:<total>:<active>}. */
+    public String delta(long total, long active) {
+        return deltaSequence.incrementAndGet() + ":" + total + ":" + active;
+    }
+
+    /** Applies the deltas a peer broadcast; anything they miss is corrected by the next reconcile. */
+    public void applyDeltas(Collection<String> deltas) {
+        long total = 0;
+        long active = 0;
+        for (String delta : deltas) {
+            String[] parts = delta.split(":");
+            total += Long.parseLong(parts[1]);
+            active += Long.parseLong(parts[2]);
+        }
+        totalUsers.add(total);
+        activeUsers.add(active);
+        if (total != 0 || active != 0) {
+            userVersion.bump();
+        }
+    }
+
+    public long getTotalUsers() {
+        return totalUsers.sum();
+    }
+
+    public long getActiveUsers() {
+        return Math.max(0, activeUsers.sum());
+    }
+}
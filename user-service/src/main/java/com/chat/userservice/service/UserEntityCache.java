@@ -0,0 +1,64 @@
+package com.chat.userservice.service;
+
+import com.chat.userservice.entity.User;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps the Hibernate second-level cache honest for writes that bypass
+ * Hibernate (batched JDBC activity updates). Writes made through the
+ * EntityManager update the cache themselves.
+ */
+@Component
+public class UserEntityCache {
+    private static final int IN_LIST_CHUNK = 1000;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    @Autowired
+    private UserBriefCache userBriefCache;
+
+    public void evict(Long userId) {
+        entityManagerFactory.getCache().evict(User.class, userId);
+    }
+
+    // username -> id is immutable, so only the entity entries need to go
+    public void evictUsernames(Collection<String> usernames) {
+        userBriefCache.evictUsernames(usernames);
+        Cache cache = entityManagerFactory.getCache();
+        for (Long id : findIds(usernames).values()) {
+            cache.evict(User.class, id);
+        }
+    }
+
+    public Map<String, Long> findIds(Collection<String> usernames) {
+        Map<String, Long> ids = new HashMap<>(usernames.size());
+        List<String> all = new ArrayList<>(usernames);
+        for (int from = 0; from < all.size(); from += IN_LIST_CHUNK) {
+            List<String> chunk = all.subList(from, Math.min(from + IN_LIST_CHUNK, all.size()));
+            namedJdbcTemplate.query("SELECT id, username FROM users WHERE username IN (:usernames)",
+                Map.of("usernames", chunk), rs -> {
+                    ids.put(rs.getString("username"), rs.getLong("id"));
+                });
+        }
+        return ids;
+    }
+
+    public void evictAll() {
+        userBriefCache.evictAll();
+        entityManagerFactory.getCache().evict(User.class);
+    }
+}
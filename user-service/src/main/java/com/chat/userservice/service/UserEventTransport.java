@@ -0,0 +1,12 @@
+package com.chat.userservice.service;
+
+import java.util.List;
+
+/**
+ * Delivers a batch of outbox messages. Returning normally means every
+ * message was accepted by the broker; throwing leaves the whole batch in
+ * the outbox to be retried, so consumers must tolerate duplicates.
+ */
+public interface UserEventTransport {
+    void publish(List<OutboxMessage> messages) throws Exception;
+}
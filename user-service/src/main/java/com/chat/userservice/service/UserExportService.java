@@ -0,0 +1,104 @@
+package com.chat.userservice.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Stream;
+
+@Service
+public class UserExportService {
+    private static final String EXPORT_QUERY =
+        "SELECT u.id, u.username, u.email, u.active, u.createdAt, u.lastSeen FROM User u ORDER BY u.id";
+    private static final String CSV_HEADER = "id,username,email,active,createdAt,lastSeen\n";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${export.fetch-size:1000}")
+    private int fetchSize;
+
+    // Scalar rows are never attached to the persistence context, so memory stays flat
+    private Stream<Object[]> streamRows() {
+        return entityManager.createQuery(EXPORT_QUERY, Object[].class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+
+    @Transactional(readOnly = true)
+    public long writeNdjson(OutputStream out) throws IOException {
+        long count = 0;
+        try (JsonGenerator gen = objectMapper.getFactory().createGenerator(out);
+             Stream<Object[]> rows = streamRows()) {
+            gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            gen.setRootValueSeparator(new SerializedString("\n"));
+            for (Object[] row : (Iterable<Object[]>) rows::iterator) {
+                gen.writeStartObject();
+                gen.writeNumberField("id", (Long) row[0]);
+                gen.writeStringField("username", (String) row[1]);
+                gen.writeStringField("email", (String) row[2]);
+                gen.writeBooleanField("active", (Boolean) row[3]);
+                gen.writeStringField("createdAt", row[4] == null ? null : row[4].toString());
+                gen.writeStringField("lastSeen", row[5] == null ? null : row[5].toString());
+                gen.writeEndObject();
+                count++;
+            }
+            if (count > 0) {
+                gen.writeRaw('\n');
+            }
+        }
+        return count;
+    }
+
+    @Transactional(readOnly = true)
+    public long writeCsv(OutputStream out) throws IOException {
+        long count = 0;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        try (Stream<Object[]> rows = streamRows()) {
+            writer.write(CSV_HEADER);
+            for (Object[] row : (Iterable<Object[]>) rows::iterator) {
+                for (int i = 0; i < row.length; i++) {
+                    if (i > 0) {
+                        writer.write(',');
+                    }
+                    writeCsvValue(writer, row[i]);
+                }
+                writer.write('\n');
+                count++;
+            }
+        }
+        writer.flush();
+        return count;
+    }
+
+    private static void writeCsvValue(Writer writer, Object value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            writer.write(text);
+            return;
+        }
+        writer.write('"');
+        writer.write(text.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
@@ -0,0 +1,258 @@
+package com.chat.userservice.service;
+
+import com.chat.userservice.dto.UserChangeEvent;
+import com.chat.userservice.entity.User;
+import com.chat.userservice.repository.UserRepository;
+import com.chat.userservice.util.PasswordHashingRejectedException;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bulk onboarding. Rows are checked against the table with one query per
+ * chunk, hashed on a dedicated pool and inserted as JDBC batches, one transaction
+ * per chunk. Re-submitting an import skips the accounts that already exist,
+ * so rows reported as skipped because hashing was saturated can simply be
+ * sent again.
+ */
+@Service
+public class UserImportService {
+    private static final Logger log = LoggerFactory.getLogger(UserImportService.class);
+    private static final String HASHING_REJECTED = "Password hashing is saturated, please resubmit";
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private UserCounters userCounters;
+
+    @Autowired
+    private UserOutbox userOutbox;
+
+    @Autowired
+    private InvalidationBus invalidationBus;
+
+    @Autowired
+    private UsernameIndex usernameIndex;
+
+    @Autowired
+    private UserVersion userVersion;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${import.batch-size:500}")
+    private int batchSize;
+
+    // Waits on the bounded encoder happen here rather than on the shared common pool
+    private final ExecutorService hashing;
+
+    public UserImportService(PlatformTransactionManager transactionManager,
+                             @Value("${import.hashing-threads:4}") int hashingThreads) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        AtomicInteger sequence = new AtomicInteger();
+        this.hashing = Executors.newFixedThreadPool(hashingThreads, r -> {
+            Thread thread = new Thread(r, "user-import-hash-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        hashing.shutdownNow();
+    }
+
+    public Map<String, Object> importUsers(List<Map<String, String>> rows) {
+        List<Map<String, String>> skipped = new ArrayList<>();
+        List<Map<String, String>> accepted = new ArrayList<>(rows.size());
+        Set<String> usernames = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        for (Map<String, String> row : rows) {
+            String username = row.get("username");
+            String email = row.get("email");
+            String password = row.get("password");
+            if (isBlank(username) || isBlank(email) || isBlank(password)) {
+                skipped.add(skip(username, "Username, email and password are required"));
+            } else if (!usernames.add(lower(username))) {
+                skipped.add(skip(username, "Username already exists"));
+            } else if (!emails.add(lower(email))) {
+                skipped.add(skip(username, "Email already exists"));
+            } else {
+                accepted.add(row);
+            }
+        }
+
+        int imported = 0;
+        for (int from = 0; from < accepted.size(); from += batchSize) {
+            int to = Math.min(from + batchSize, accepted.size());
+            try {
+                imported += importChunk(accepted.subList(from, to), skipped);
+            } catch (PasswordHashingRejectedException rejected) {
+                // Earlier chunks are committed; report the rest row by row instead of failing the request
+                for (Map<String, String> row : accepted.subList(to, accepted.size())) {
+                    skipped.add(skip(row.get("username"), HASHING_REJECTED));
+                }
+                break;
+            }
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("imported", imported);
+        result.put("skipped", skipped);
+        return result;
+    }
+
+    private int importChunk(List<Map<String, String>> chunk, List<Map<String, String>> skipped) {
+        Set<String> takenUsernames = new HashSet<>();
+        Set<String> takenEmails = new HashSet<>();
+        List<String> usernames = new ArrayList<>(chunk.size());
+        List<String> emails = new ArrayList<>(chunk.size());
+        for (Map<String, String> row : chunk) {
+            usernames.add(lower(row.get("username")));
+            emails.add(lower(row.get("email")));
+        }
+        for (Object[] taken : userRepository.findTakenUsernamesAndEmails(usernames, emails)) {
+            takenUsernames.add(lower((String) taken[0]));
+            takenEmails.add(lower((String) taken[1]));
+        }
+
+        List<Map<String, String>> fresh = new ArrayList<>(chunk.size());
+        for (Map<String, String> row : chunk) {
+            if (takenUsernames.contains(lower(row.get("username")))) {
+                skipped.add(skip(row.get("username"), "Username already exists"));
+            } else if (takenEmails.contains(lower(row.get("email")))) {
+                skipped.add(skip(row.get("username"), "Email already exists"));
+            } else {
+                fresh.add(row);
+            }
+        }
+
+        // Hashing dominates; the bounded encoder caps how much of it runs at once
+        List<User> users;
+        try {
+            users = hash(fresh);
+        } catch (PasswordHashingRejectedException e) {
+            for (Map<String, String> row : fresh) {
+                skipped.add(skip(row.get("username"), HASHING_REJECTED));
+            }
+            throw e;
+        }
+        if (users.isEmpty()) {
+            return 0;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (User user : users) {
+                    entityManager.persist(user);
+                }
+                entityManager.flush();
+                entityManager.clear();
+                userOutbox.appendAll(users.stream().map(UserChangeEvent::registered).toList());
+            });
+        } catch (RuntimeException e) {
+            // Lost a race with a concurrent registration; settle the chunk row by row
+            log.debug("Batch insert of {} users failed, retrying individually", users.size(), e);
+            return insertIndividually(users, skipped);
+        }
+
+        // The chunk is committed; nothing below may send it back through insertIndividually
+        userCounters.usersRegistered(users.size());
+        invalidationBus.broadcast(InvalidationBus.COUNTERS, userCounters.delta(users.size(), 0));
+        userVersion.bump();
+        List<String> registered = new ArrayList<>(users.size());
+        for (User user : users) {
+            usernameIndex.add(user.getId(), user.getUsername());
+            registered.add(user.getId() + ":" + user.getUsername());
+        }
+        invalidationBus.broadcast(InvalidationBus.USERNAMES, registered);
+        return users.size();
+    }
+
+    private List<User> hash(List<Map<String, String>> rows) {
+        List<Future<User>> futures = new ArrayList<>(rows.size());
+        for (Map<String, String> row : rows) {
+            futures.add(hashing.submit(
+                () -> new User(row.get("username"), row.get("email"), passwordEncoder.encode(row.get("password")))));
+        }
+        List<User> users = new ArrayList<>(rows.size());
+        try {
+            for (Future<User> future : futures) {
+                users.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingRejectedException("Interrupted while waiting for password hashing");
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+        return users;
+    }
+
+    private int insertIndividually(List<User> users, List<Map<String, String>> skipped) {
+        int imported = 0;
+        for (User user : users) {
+            user.setId(null);
+            try {
+                userService.insertUser(user);
+                imported++;
+            } catch (RuntimeException e) {
+                String message = UserService.duplicateMessage(e);
+                skipped.add(skip(user.getUsername(), message != null ? message : e.getMessage()));
+            }
+        }
+        return imported;
+    }
+
+    private static Map<String, String> skip(String username, String error) {
+        Map<String, String> entry = new HashMap<>();
+        entry.put("username", username);
+        entry.put("error", error);
+        return entry;
+    }
+
+    // Matches the lower() unique indexes, so case variants are caught before the batch insert
+    private static String lower(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
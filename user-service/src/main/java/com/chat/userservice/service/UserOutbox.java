@@ -0,0 +1,55 @@
+package com.chat.userservice.service;
+
+import com.chat.userservice.dto.UserChangeEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Appends user-change events to the outbox table. Must run inside the
+ * transaction that makes the change, so the event commits or rolls back
+ * with it.
+ */
+@Component
+public class UserOutbox {
+    private static final String INSERT =
+        "INSERT INTO user_outbox (event_type, user_id, username, payload) VALUES (?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(UserChangeEvent event) {
+        appendAll(List.of(event));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void appendAll(List<UserChangeEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        List<Object[]> rows = new ArrayList<>(events.size());
+        for (UserChangeEvent event : events) {
+            rows.add(new Object[] {event.getType(), event.getUserId(), event.getUsername(), toJson(event)});
+        }
+        jdbcTemplate.batchUpdate(INSERT, rows);
+    }
+
+    private String toJson(UserChangeEvent event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize " + event.getType() + " event", e);
+        }
+    }
+}
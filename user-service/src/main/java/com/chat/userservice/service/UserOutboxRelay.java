@@ -0,0 +1,115 @@
+package com.chat.userservice.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Drains the outbox in id order. Only the replica holding the relay lease
+ * drains, so events for one user leave in the order they were written. A
+ * batch is read, published with no transaction open and deleted once the
+ * broker has acked it; a crash in between republishes the batch.
+ */
+@Component
+public class UserOutboxRelay {
+    private static final Logger log = LoggerFactory.getLogger(UserOutboxRelay.class);
+
+    private static final String SELECT_BATCH =
+        "SELECT id, event_type, user_id, username, payload FROM user_outbox ORDER BY id LIMIT ?";
+    private static final String DELETE = "DELETE FROM user_outbox WHERE id = ?";
+    private static final String CLAIM_LEASE =
+        "UPDATE user_outbox_relay_lease SET owner = ?, expires_at = ? WHERE id = 1 AND (owner = ? OR expires_at < ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private UserEventTransport transport;
+
+    @Value("${outbox.batch-size:500}")
+    private int batchSize;
+
+    @Value("${outbox.max-batches-per-run:20}")
+    private int maxBatchesPerRun;
+
+    @Value("${outbox.lease-ms:30000}")
+    private long leaseMs;
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    @Scheduled(fixedDelayString = "${outbox.poll-interval-ms:500}")
+    public void relay() {
+        for (int i = 0; i < maxBatchesPerRun; i++) {
+            int sent;
+            try {
+                if (!claimLease()) {
+                    return;
+                }
+                sent = relayBatch();
+            } catch (RuntimeException e) {
+                failures.increment();
+                log.warn("Failed to publish user events; will retry", e);
+                return;
+            }
+            if (sent < batchSize) {
+                return;
+            }
+        }
+    }
+
+    // Takes or renews the lease; renewed before every batch, so a stalled holder loses it after lease-ms
+    boolean claimLease() {
+        long now = System.currentTimeMillis();
+        return jdbcTemplate.update(CLAIM_LEASE, nodeId, new Timestamp(now + leaseMs), nodeId, new Timestamp(now)) == 1;
+    }
+
+    int relayBatch() {
+        List<OutboxMessage> batch = jdbcTemplate.query(SELECT_BATCH, (rs, n) -> {
+            long userId = rs.getLong("user_id");
+            String key = rs.wasNull() ? rs.getString("username") : Long.toString(userId);
+            return new OutboxMessage(rs.getLong("id"), key, rs.getString("event_type"), rs.getString("payload"));
+        }, batchSize);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        try {
+            transport.publish(batch);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException("Transport rejected " + batch.size() + " user events", e);
+        }
+        List<Object[]> ids = new ArrayList<>(batch.size());
+        for (OutboxMessage message : batch) {
+            ids.add(new Object[] {message.getId()});
+        }
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(DELETE, ids));
+        published.add(batch.size());
+        return batch.size();
+    }
+
+    public long getPublished() {
+        return published.sum();
+    }
+
+    public long getFailures() {
+        return failures.sum();
+    }
+}
@@ -1,14 +1,37 @@
 package com.chat.userservice.service;
 
+import com.chat.userservice.config.ReplicaReads;
+import com.chat.userservice.dto.UserBrief;
+import com.chat.userservice.dto.UserChangeEvent;
+import com.chat.userservice.dto.UserSummary;
 import com.chat.userservice.entity.User;
 import com.chat.userservice.repository.UserRepository;
+import com.chat.userservice.util.JwtUtil;
+import com.chat.userservice.util.PasswordHashingRejectedException;
+import com.chat.userservice.util.SingleFlight;
+import io.jsonwebtoken.Claims;
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import java.time.LocalDateTime;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class UserService {
@@ -18,32 +41,113 @@ public class UserService {
     @Autowired
     private PasswordEncoder passwordEncoder;
     
+    @Autowired
+    private JwtUtil jwtUtil;
+    
+    @Autowired
+    private UserCounters userCounters;
+    
+    @Autowired
+    private UserActivityBuffer activityBuffer;
+    
+    @Autowired
+    private UserBriefCache userBriefCache;
+    
+    @Autowired
+    private UserOutbox userOutbox;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private InvalidationBus invalidationBus;
+    
+    @Autowired
+    private UsernameIndex usernameIndex;
+    
+    @Autowired
+    private UserVersion userVersion;
+    
+    @Autowired
+    private TokenVersionCache tokenVersions;
+    
+    // A burst of logins/validations for one account shares a single query
+    private final SingleFlight<String, Optional<User>> userLookups = new SingleFlight<>();
+    
     public User registerUser(String username, String email, String password) {
-        if (userRepository.findByUsername(username).isPresent()) {
-            throw new RuntimeException("Username already exists");
+        return insertUser(new User(username, email, passwordEncoder.encode(password)));
+    }
+    
+    // Single INSERT; the unique constraints decide duplicates instead of racy pre-checks
+    User insertUser(User user) {
+        User saved;
+        try {
+            saved = transactionTemplate.execute(status -> {
+                User inserted = userRepository.saveAndFlush(user);
+                userOutbox.append(UserChangeEvent.registered(inserted));
+                return inserted;
+            });
+        } catch (DataIntegrityViolationException e) {
+            String message = duplicateMessage(e);
+            throw message != null ? new RuntimeException(message) : e;
+        }
+        userCounters.userRegistered();
+        invalidationBus.broadcast(InvalidationBus.COUNTERS, userCounters.delta(1, 0));
+        userVersion.bump();
+        usernameIndex.add(saved.getId(), saved.getUsername());
+        invalidationBus.broadcast(InvalidationBus.USERNAMES, saved.getId() + ":" + saved.getUsername());
+        return saved;
+    }
+    
+    static String duplicateMessage(Throwable e) {
+        String detail = null;
+        for (Throwable t = e; t != null && detail == null; t = t.getCause()) {
+            if (t instanceof ConstraintViolationException cve) {
+                detail = cve.getConstraintName();
+            }
         }
-        if (userRepository.findByEmail(email).isPresent()) {
-            throw new RuntimeException("Email already exists");
+        if (detail == null) {
+            detail = e.getMessage();
         }
-        
-        User user = new User(username, email, passwordEncoder.encode(password));
-        return userRepository.save(user);
+        detail = detail == null ? "" : detail.toLowerCase(Locale.ROOT);
+        if (detail.contains(User.USERNAME_CONSTRAINT) || detail.contains(User.USERNAME_LOWER_INDEX)) {
+            return "Username already exists";
+        }
+        if (detail.contains(User.EMAIL_CONSTRAINT) || detail.contains(User.EMAIL_LOWER_INDEX)) {
+            return "Email already exists";
+        }
+        return null;
     }
     
     public Optional<User> authenticateUser(String username, String password) {
-        Optional<User> user = userRepository.findByUsername(username);
+        Optional<User> user = getUserByUsername(username);
         if (user.isPresent() && passwordEncoder.matches(password, user.get().getPassword())) {
+            tokenVersions.update(user.get().getId(), user.get().getTokenVersion());
+            rehashIfOutdated(user.get(), password);
             return user;
         }
         return Optional.empty();
     }
     
+    // The plaintext is only available at login, so that is where old cost parameters get upgraded.
+    // The User may be shared with concurrent logins, so it is left as loaded and only the hash column is written.
+    private void rehashIfOutdated(User user, String password) {
+        String oldHash = user.getPassword();
+        if (!passwordEncoder.upgradeEncoding(oldHash)) {
+            return;
+        }
+        try {
+            if (userRepository.replacePasswordHash(user.getId(), oldHash, passwordEncoder.encode(password)) == 1) {
+                invalidationBus.broadcast(InvalidationBus.USERS, user.getUsername());
+            }
+        } catch (PasswordHashingRejectedException e) {
+            // Hashing pool is saturated; the upgrade will be retried on a later login
+        }
+    }
+    
     public void updateUserActivity(String username, boolean active) {
-        userRepository.findByUsername(username).ifPresent(user -> {
-            user.setActive(active);
-            user.setLastSeen(LocalDateTime.now());
-            userRepository.save(user);
-        });
+        // Coalesced and written in batches by UserActivityBuffer
+        activityBuffer.record(username, active);
     }
     
     @Transactional
@@ -56,9 +160,13 @@ public class UserService {
                 user.setPassword(encodedPassword);
                 userRepository.save(user);
                 userRepository.flush(); // Force immediate database write
+                userOutbox.append(UserChangeEvent.passwordChanged(user));
+                forgetTokenState(user);
                 return true;
             }
             return false;
+        } catch (PasswordHashingRejectedException e) {
+            throw e;
         } catch (Exception e) {
             return false;
         }
@@ -68,15 +176,183 @@ public class UserService {
         return userRepository.findAll();
     }
     
+    @Transactional(readOnly = true)
+    public List<UserSummary> getUserSummaries(long afterId, int limit, Boolean active) {
+        Pageable page = PageRequest.of(0, limit);
+        if (active == null) {
+            return userRepository.findSummariesAfter(afterId, page);
+        }
+        return userRepository.findSummariesAfter(afterId, active, page);
+    }
+    
     public long getTotalUsers() {
-        return userRepository.count();
+        return userCounters.getTotalUsers();
     }
     
     public long getActiveUsers() {
-        return userRepository.countActiveUsers();
+        return userCounters.getActiveUsers();
     }
     
     public Optional<User> getUserByUsername(String username) {
-        return userRepository.findByUsername(username);
+        if (username == null) {
+            return Optional.empty();
+        }
+        return userLookups.load(username, () -> userRepository.findByUsername(username));
+    }
+    
+    public SingleFlight<String, Optional<User>> getUserLookups() {
+        return userLookups;
+    }
+    
+    // Cached entries first; every miss goes into one IN query
+    public List<UserBrief> lookupUsers(Collection<Long> ids, Collection<String> usernames) {
+        Map<Long, UserBrief> found = new LinkedHashMap<>();
+        Set<Long> missingIds = new LinkedHashSet<>();
+        Set<String> missingUsernames = new LinkedHashSet<>();
+        for (Long id : ids) {
+            UserBrief brief = userBriefCache.get(id);
+            if (brief != null) {
+                found.put(id, brief);
+            } else {
+                missingIds.add(id);
+            }
+        }
+        for (String username : usernames) {
+            UserBrief brief = userBriefCache.getByUsername(username);
+            if (brief != null) {
+                found.putIfAbsent(brief.getId(), brief);
+            } else {
+                missingUsernames.add(username);
+            }
+        }
+        if (!missingIds.isEmpty() || !missingUsernames.isEmpty()) {
+            // Feed rendering already tolerates the brief cache's TTL, so a lagging replica is fine too
+            List<UserBrief> loaded = ReplicaReads.run(
+                () -> userRepository.findBriefsByIdInOrUsernameIn(missingIds, missingUsernames));
+            for (UserBrief brief : loaded) {
+                userBriefCache.put(brief);
+                found.putIfAbsent(brief.getId(), brief);
+            }
+        }
+        return new ArrayList<>(found.values());
+    }
+    
+    // Bumping the version invalidates every token issued so far; new logins get the new one
+    @Transactional
+    public boolean revokeAllTokens(String username) {
+        Optional<User> userOpt = userRepository.findByUsername(username);
+        if (userOpt.isEmpty()) {
+            return false;
+        }
+        User user = userOpt.get();
+        user.setTokenVersion(user.getTokenVersion() + 1);
+        userRepository.save(user);
+        userRepository.flush();
+        userOutbox.append(UserChangeEvent.tokensRevoked(user));
+        forgetTokenState(user);
+        return true;
+    }
+    
+    // Local state is only dropped after commit; until then a concurrent /validate still reads the
+    // old row and would put it straight back. The bus and UserVersion defer themselves the same way.
+    private void forgetTokenState(User user) {
+        Long userId = user.getId();
+        String username = user.getUsername();
+        int tokenVersion = user.getTokenVersion();
+        afterCommit(() -> {
+            jwtUtil.getTokenCache().evictSubjects(List.of(username));
+            tokenVersions.update(userId, tokenVersion);
+        });
+        userVersion.bump();
+        invalidationBus.broadcast(InvalidationBus.USERS, user.getUsername());
+        invalidationBus.broadcast(InvalidationBus.TOKENS, user.getUsername());
+        invalidationBus.broadcast(InvalidationBus.TOKEN_VERSIONS, user.getId().toString());
+    }
+    
+    public boolean isTokenVersionCurrent(Long userId, int tokenVersion) {
+        Integer known = tokenVersions.get(userId);
+        if (known == null || known < tokenVersion) {
+            Optional<User> user = userRepository.findById(userId);
+            if (user.isEmpty()) {
+                tokenVersions.evict(userId);
+                return false;
+            }
+            known = user.get().getTokenVersion();
+            tokenVersions.update(userId, known);
+        }
+        return known == tokenVersion;
+    }
+    
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+    
+    public List<Map<String, Object>> validateTokens(List<String> tokens) {
+        List<Claims> verified = new ArrayList<>(tokens.size());
+        Set<Long> staleUserIds = new HashSet<>();
+        Set<String> legacyUsernames = new HashSet<>();
+        for (String token : tokens) {
+            Claims claims = null;
+            try {
+                claims = jwtUtil.parseToken(token);
+            } catch (Exception e) {
+                // Invalid token
+            }
+            verified.add(claims);
+            if (claims == null || claims.getSubject() == null) {
+                continue;
+            }
+            Long userId = claims.get(JwtUtil.USER_ID_CLAIM, Long.class);
+            Integer version = claims.get(JwtUtil.TOKEN_VERSION_CLAIM, Integer.class);
+            if (userId != null && version != null) {
+                Integer known = tokenVersions.get(userId);
+                if (known == null || known < version) {
+                    staleUserIds.add(userId);
+                }
+            } else {
+                legacyUsernames.add(claims.getSubject());
+            }
+        }
+        
+        // Everything the batch could not answer from the claims goes into one IN query
+        Map<String, Long> idsByUsername = new HashMap<>();
+        if (!staleUserIds.isEmpty() || !legacyUsernames.isEmpty()) {
+            for (User user : userRepository.findByIdInOrUsernameIn(staleUserIds, legacyUsernames)) {
+                tokenVersions.update(user.getId(), user.getTokenVersion());
+                idsByUsername.put(user.getUsername(), user.getId());
+                staleUserIds.remove(user.getId());
+            }
+            tokenVersions.evict(staleUserIds);
+        }
+        
+        List<Map<String, Object>> results = new ArrayList<>(verified.size());
+        for (Claims claims : verified) {
+            Long userId = null;
+            if (claims != null && claims.getSubject() != null) {
+                Long claimedId = claims.get(JwtUtil.USER_ID_CLAIM, Long.class);
+                Integer version = claims.get(JwtUtil.TOKEN_VERSION_CLAIM, Integer.class);
+                if (claimedId != null && version != null) {
+                    Integer known = tokenVersions.get(claimedId);
+                    userId = known != null && known == version.intValue() ? claimedId : null;
+                } else {
+                    userId = idsByUsername.get(claims.getSubject());
+                }
+            }
+            if (userId != null) {
+                results.add(Map.of("valid", true, "username", claims.getSubject(), "userId", userId));
+            } else {
+                results.add(Map.of("valid", false));
+            }
+        }
+        return results;
     }
 }
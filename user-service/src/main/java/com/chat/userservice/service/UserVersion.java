@@ -0,0 +1,44 @@
+package com.chat.userservice.service;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Monotonic version of the users table as this replica has seen it. Writes
+ * bump it after they commit, and peers' writes bump it when their
+ * invalidations arrive. ETags carry a per-process epoch as well, so two
+ * replicas, or one replica before and after a restart, never hand out the
+ * same tag for different data.
+ */
+@Component
+public class UserVersion {
+    private final String epoch = Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36);
+    private final AtomicLong version = new AtomicLong();
+
+    public void bump() {
+        // Bumping before commit would let a reader cache the old rows under the new version
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    version.incrementAndGet();
+                }
+            });
+        } else {
+            version.incrementAndGet();
+        }
+    }
+
+    public long current() {
+        return version.get();
+    }
+
+    /** Tag for one view of the data at {@code version}; distinct views, such as pages, pass distinct keys. */
+    public String etag(long version, String view) {
+        return "\"" + epoch + "-" + version + "-" + view + "\"";
+    }
+}
@@ -0,0 +1,210 @@
+package com.chat.userservice.service;
+
+import com.chat.userservice.dto.UserMatch;
+import com.chat.userservice.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Case-insensitive username prefix index for autocomplete. The bulk of
+ * the names live in a sorted {@code String[]} with a parallel
+ * {@code long[]} of ids; registrations land in a small sorted map that is
+ * folded into a fresh array once it reaches {@code merge-threshold}.
+ * A search is a binary search plus a scan of at most {@code limit}
+ * entries from each, so it never touches the database.
+ *
+ * <p>Memory: per user, the username String (24 bytes plus a 16-byte
+ * array header plus one byte per Latin-1 character, rounded up to 8),
+ * a 4-byte array slot and an 8-byte id. That is 64-72 bytes for the
+ * usual 5-20 character names, or about 70 MB per million users. Entries
+ * still waiting in the registration map cost roughly 100 bytes more
+ * until the next merge.
+ */
+@Component
+public class UsernameIndex {
+    private static final Logger log = LoggerFactory.getLogger(UsernameIndex.class);
+
+    // Usernames are unique case-insensitively, so this order has no ties
+    private static final Comparator<String> ORDER = String.CASE_INSENSITIVE_ORDER;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${users.search.merge-threshold:1024}")
+    private int mergeThreshold;
+
+    @Value("${users.search.warm-page-size:10000}")
+    private int warmPageSize;
+
+    private volatile Snapshot snapshot = new Snapshot(new String[0], new long[0]);
+    private final ConcurrentSkipListMap<String, Long> recent = new ConcurrentSkipListMap<>(ORDER);
+    private final Object mergeLock = new Object();
+
+    @PostConstruct
+    public void rebuild() {
+        List<String> names = new ArrayList<>();
+        List<Long> ids = new ArrayList<>();
+        long afterId = 0;
+        List<Object[]> page;
+        do {
+            page = userRepository.findIdsAndUsernamesAfter(afterId, PageRequest.of(0, warmPageSize));
+            for (Object[] row : page) {
+                ids.add((Long) row[0]);
+                names.add((String) row[1]);
+                afterId = (Long) row[0];
+            }
+        } while (page.size() == warmPageSize);
+        load(names, ids);
+        log.info("Username index loaded with {} users", names.size());
+    }
+
+    void load(List<String> names, List<Long> ids) {
+        Integer[] order = new Integer[names.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> ORDER.compare(names.get(a), names.get(b)));
+        String[] sortedNames = new String[order.length];
+        long[] sortedIds = new long[order.length];
+        for (int i = 0; i < order.length; i++) {
+            sortedNames[i] = names.get(order[i]);
+            sortedIds[i] = ids.get(order[i]);
+        }
+        Snapshot loaded = new Snapshot(sortedNames, sortedIds);
+        synchronized (mergeLock) {
+            snapshot = loaded;
+            // Keep registrations that raced the load; they are merged again later
+            recent.keySet().removeIf(name -> loaded.indexOf(name) >= 0);
+        }
+    }
+
+    public void add(Long id, String username) {
+        recent.put(username, id);
+        if (recent.size() >= mergeThreshold) {
+            merge();
+        }
+    }
+
+    private void merge() {
+        synchronized (mergeLock) {
+            if (recent.size() < mergeThreshold) {
+                return;
+            }
+            Snapshot current = snapshot;
+            List<Map.Entry<String, Long>> additions = new ArrayList<>(recent.entrySet());
+            int size = current.names.length + additions.size();
+            String[] names = new String[size];
+            long[] ids = new long[size];
+            int i = 0;
+            int j = 0;
+            int n = 0;
+            while (i < current.names.length || j < additions.size()) {
+                int cmp = i == current.names.length ? 1
+                    : j == additions.size() ? -1
+                    : ORDER.compare(current.names[i], additions.get(j).getKey());
+                if (cmp <= 0) {
+                    names[n] = current.names[i];
+                    ids[n++] = current.ids[i];
+                    i++;
+                    if (cmp == 0) {
+                        j++;
+                    }
+                } else {
+                    names[n] = additions.get(j).getKey();
+                    ids[n++] = additions.get(j).getValue();
+                    j++;
+                }
+            }
+            snapshot = new Snapshot(Arrays.copyOf(names, n), Arrays.copyOf(ids, n));
+            for (Map.Entry<String, Long> added : additions) {
+                recent.remove(added.getKey(), added.getValue());
+            }
+        }
+    }
+
+    /** Up to {@code limit} users whose name starts with {@code prefix}, ignoring case, in name order. */
+    public List<UserMatch> search(String prefix, int limit) {
+        Snapshot current = snapshot;
+        List<UserMatch> matches = new ArrayList<>(Math.min(limit, 64));
+        int i = current.lowerBound(prefix);
+        Iterator<Map.Entry<String, Long>> pending = recent.tailMap(prefix, true).entrySet().iterator();
+        Map.Entry<String, Long> next = nextMatch(pending, prefix);
+        while (matches.size() < limit) {
+            boolean fromArray = i < current.names.length && startsWith(current.names[i], prefix);
+            if (!fromArray && next == null) {
+                break;
+            }
+            int cmp = !fromArray ? 1 : next == null ? -1 : ORDER.compare(current.names[i], next.getKey());
+            if (cmp <= 0) {
+                matches.add(new UserMatch(current.ids[i], current.names[i]));
+                i++;
+                if (cmp == 0) {
+                    next = nextMatch(pending, prefix);
+                }
+            } else {
+                matches.add(new UserMatch(next.getValue(), next.getKey()));
+                next = nextMatch(pending, prefix);
+            }
+        }
+        return matches;
+    }
+
+    public int size() {
+        return snapshot.names.length + recent.size();
+    }
+
+    private static Map.Entry<String, Long> nextMatch(Iterator<Map.Entry<String, Long>> it, String prefix) {
+        if (!it.hasNext()) {
+            return null;
+        }
+        Map.Entry<String, Long> entry = it.next();
+        return startsWith(entry.getKey(), prefix) ? entry : null;
+    }
+
+    private static boolean startsWith(String name, String prefix) {
+        return name.regionMatches(true, 0, prefix, 0, prefix.length());
+    }
+
+    private static final class Snapshot {
+        final String[] names;
+        final long[] ids;
+
+        Snapshot(String[] names, long[] ids) {
+            this.names = names;
+            this.ids = ids;
+        }
+
+        // First position whose name sorts at or after the key; a prefix sorts before all its extensions
+        int lowerBound(String key) {
+            int low = 0;
+            int high = names.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (ORDER.compare(names[mid], key) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        int indexOf(String name) {
+            int at = lowerBound(name);
+            return at < names.length && ORDER.compare(names[at], name) == 0 ? at : -1;
+        }
+    }
+}
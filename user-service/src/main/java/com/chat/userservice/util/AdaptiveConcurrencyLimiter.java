@@ -0,0 +1,114 @@
+package com.chat.userservice.util;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * AIMD concurrency limit driven by latency gradients. Every endpoint keeps
+ * two moving averages of its own latency: a short one over the last few
+ * calls and a long one that serves as its baseline. While an endpoint's
+ * short average stays above baseline * tolerance the limit shrinks
+ * multiplicatively, at most once per short window; otherwise a busy
+ * limiter grows it by one, and an idle one drifts back to the initial
+ * limit. Comparing each endpoint only with itself keeps a mix of fast and
+ * slow calls from reading as congestion. Lower priorities may only use a
+ * fraction of the limit, so they are shed first as it shrinks.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    public enum Priority { HIGH, MEDIUM, LOW }
+
+    private final int initialLimit;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double backoffRatio;
+    private final int shortWindow;
+    private final double shortWeight;
+    private final double longWeight;
+    private final double[] shares;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Map<String, Latency> endpoints = new ConcurrentHashMap<>();
+    private volatile double limit;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double tolerance,
+                                      double backoffRatio, int shortWindow, int longWindow,
+                                      double mediumShare, double lowShare) {
+        this.initialLimit = initialLimit;
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.backoffRatio = backoffRatio;
+        this.shortWindow = shortWindow;
+        this.shortWeight = 2.0 / (shortWindow + 1);
+        this.longWeight = 2.0 / (longWindow + 1);
+        this.shares = new double[] {1.0, mediumShare, lowShare};
+    }
+
+    public boolean tryAcquire(Priority priority) {
+        int allowed = Math.max(1, (int) (limit * shares[priority.ordinal()]));
+        while (true) {
+            int current = inFlight.get();
+            if (current >= allowed) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    /** @param endpoint what the latency is compared against, e.g. the method and route pattern */
+    public void release(String endpoint, long latencyNanos) {
+        int busy = inFlight.getAndDecrement();
+        Latency latency = endpoints.computeIfAbsent(endpoint, e -> new Latency());
+        synchronized (this) {
+            latency.add(latencyNanos);
+            if (latency.isSlow()) {
+                // Backing off once per window is enough for the short average to reflect it
+                if (latency.samples - latency.lastBackoff >= shortWindow) {
+                    latency.lastBackoff = latency.samples;
+                    limit = Math.max(minLimit, limit * backoffRatio);
+                }
+            } else if (busy * 2 >= limit) {
+                limit = Math.min(maxLimit, limit + 1);
+            } else if (limit < initialLimit) {
+                limit = Math.min(initialLimit, limit + 1);
+            }
+        }
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    // Guarded by the limiter's lock
+    private final class Latency {
+        double shortAverage;
+        double baseline;
+        long samples;
+        long lastBackoff;
+
+        void add(long latencyNanos) {
+            samples++;
+            // Plain running means until the windows fill, so early samples count fully
+            shortAverage += (latencyNanos - shortAverage) * Math.max(shortWeight, 1.0 / samples);
+            baseline += (latencyNanos - baseline) * Math.max(longWeight, 1.0 / samples);
+        }
+
+        boolean isSlow() {
+            return samples >= shortWindow && shortAverage > baseline * tolerance;
+        }
+    }
+}
@@ -1,37 +1,142 @@
 package com.chat.userservice.util;
 
+import com.chat.userservice.config.JwtSigningProperties;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import java.security.Key;
+import java.time.Instant;
 import java.util.Date;
+import java.util.List;
+import java.util.Map;
 
 @Component
 public class JwtUtil {
+    private static final Logger log = LoggerFactory.getLogger(JwtUtil.class);
+
+    public static final String USER_ID_CLAIM = "userId";
+    public static final String TOKEN_VERSION_CLAIM = "ver";
+
     @Value("${jwt.secret}")
     private String secret;
-    
+
     @Value("${jwt.expiration}")
     private Long expiration;
-    
-    private Key getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes());
+
+    @Value("${jwt.cache.max-size:10000}")
+    private int cacheMaxSize;
+
+    @Value("${jwt.revocation.bucket-ms:3600000}")
+    private long revocationBucketMs;
+
+    @Value("${jwt.revocation.bloom-bits:1048576}")
+    private int revocationBloomBits;
+
+    @Autowired
+    private JwtSigningProperties signingProperties;
+
+    private Key hmacKey;
+    private SigningKeyRing keyRing;
+    private boolean asymmetric;
+    private JwtParser jwtParser;
+    private VerifiedTokenCache tokenCache;
+    private TokenDenylist denylist;
+
+    @PostConstruct
+    void init() {
+        hmacKey = Keys.hmacShaKeyFor(secret.getBytes());
+        keyRing = new SigningKeyRing();
+        for (JwtSigningProperties.Key key : signingProperties.getKeys()) {
+            // Unset environment variables bind as blank entries
+            if (key.getPublicKey() != null && !key.getPublicKey().isBlank()) {
+                keyRing.addKey(key.getKid(), key.getPublicKey(), key.getPrivateKey());
+            }
+        }
+        asymmetric = "ES256".equalsIgnoreCase(signingProperties.getAlgorithm());
+        if (asymmetric && !keyRing.hasActiveKey()) {
+            // A per-process key logs everyone out on restart and fails on every other replica
+            if (!signingProperties.isGenerateEphemeralKey()) {
+                throw new IllegalStateException("jwt.signing.algorithm is ES256 but no jwt.signing.keys entry "
+                        + "has a private key; configure one or use HS256");
+            }
+            log.warn("No jwt.signing.keys configured; generated an ephemeral ES256 key. "
+                    + "Tokens will not survive a restart or verify on other replicas.");
+            keyRing.addGeneratedKey();
+        }
+        // JwtParser is immutable once built and safe to share across request threads
+        jwtParser = Jwts.parserBuilder()
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    @Override
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        return resolveKey(header, claims);
+                    }
+                })
+                .build();
+        tokenCache = new VerifiedTokenCache(cacheMaxSize);
+        denylist = new TokenDenylist(revocationBucketMs, revocationBloomBits);
     }
-    
+
+    private Key resolveKey(JwsHeader<?> header, Claims claims) {
+        String kid = header.getKeyId();
+        if (kid == null) {
+            if (asymmetric && !isLegacyHmacToken(claims)) {
+                throw new UnsupportedJwtException("HMAC tokens are no longer accepted");
+            }
+            return hmacKey;
+        }
+        Key key = keyRing.getPublicKey(kid);
+        if (key == null) {
+            throw new UnsupportedJwtException("Unknown signing key " + kid);
+        }
+        return key;
+    }
+
+    // Tokens issued before the switch to ES256 carry no kid. Bounding exp as well as iat keeps
+    // anyone holding jwt.secret from minting backdated tokens that outlive the switch.
+    private boolean isLegacyHmacToken(Claims claims) {
+        Instant until = signingProperties.getLegacyHmacUntil();
+        if (until == null || claims.getIssuedAt() == null || claims.getExpiration() == null) {
+            return false;
+        }
+        return claims.getIssuedAt().toInstant().isBefore(until)
+                && claims.getExpiration().getTime() <= until.toEpochMilli() + expiration;
+    }
+
+    private JwtBuilder sign(JwtBuilder builder) {
+        if (asymmetric) {
+            return builder.setHeaderParam(JwsHeader.KEY_ID, keyRing.getActiveKid())
+                    .signWith(keyRing.getActivePrivateKey(), SignatureAlgorithm.ES256);
+        }
+        return builder.signWith(hmacKey);
+    }
+
     public String generateToken(String username) {
-        return Jwts.builder()
+        return sign(Jwts.builder()
                 .setSubject(username)
                 .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSigningKey())
+                .setExpiration(new Date(System.currentTimeMillis() + expiration)))
                 .compact();
     }
-    
+
+    public String generateToken(String username, Long userId, int tokenVersion) {
+        return sign(Jwts.builder()
+                .setSubject(username)
+                .claim(USER_ID_CLAIM, userId)
+                .claim(TOKEN_VERSION_CLAIM, tokenVersion)
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + expiration)))
+                .compact();
+    }
+
     public String extractUsername(String token) {
         return extractClaims(token).getSubject();
     }
-    
+
     public boolean isTokenValid(String token) {
         if (token == null || token.trim().isEmpty()) {
             return false;
@@ -43,12 +148,46 @@ public class JwtUtil {
             return false;
         }
     }
-    
+
+    public Claims parseToken(String token) {
+        return extractClaims(token);
+    }
+
+    public List<Map<String, Object>> getJwks() {
+        return keyRing.toJwks();
+    }
+
+    public VerifiedTokenCache getTokenCache() {
+        return tokenCache;
+    }
+
+    public TokenDenylist getDenylist() {
+        return denylist;
+    }
+
     private Claims extractClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        if (token == null) {
+            throw new MalformedJwtException("Token is required");
+        }
+        String key = VerifiedTokenCache.digest(token);
+        Claims claims = tokenCache.getByDigest(key);
+        if (claims == null) {
+            claims = jwtParser.parseClaimsJws(token).getBody();
+            tokenCache.putByDigest(key, claims);
+        }
+        // Checked on cache hits too; revoking also evicts, but a peer's revocation may race a put
+        if (!denylist.isEmpty() && isRevoked(key, claims)) {
+            throw new TokenRevokedException(claims.getSubject());
+        }
+        return claims;
+    }
+
+    private boolean isRevoked(String key, Claims claims) {
+        // Parsed claims hold exp as epoch seconds; getExpiration() would allocate a Date per call
+        Object exp = claims.get(Claims.EXPIRATION);
+        if (exp instanceof Number seconds) {
+            return denylist.isRevoked(key, seconds.longValue() * 1000);
+        }
+        return claims.getExpiration() != null && denylist.isRevoked(key, claims.getExpiration().getTime());
     }
 }
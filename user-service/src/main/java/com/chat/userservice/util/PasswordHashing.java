@@ -0,0 +1,46 @@
+package com.chat.userservice.util;
+
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public final class PasswordHashing {
+    public static final String BCRYPT = "bcrypt";
+    public static final String ARGON2 = "argon2";
+
+    private static final int ARGON2_SALT_LENGTH = 16;
+    private static final int ARGON2_HASH_LENGTH = 32;
+    private static final int ARGON2_PARALLELISM = 1;
+
+    private PasswordHashing() {}
+
+    /**
+     * Encodes new hashes with the given algorithm as {id}hash. Hashes stored
+     * before ids were introduced are plain BCrypt and still match; their
+     * upgradeEncoding is always true so they are rewritten on next login.
+     */
+    public static DelegatingPasswordEncoder createEncoder(String algorithm, int bcryptStrength,
+                                                          int argon2MemoryKb, int argon2Iterations) {
+        BCryptPasswordEncoder bcrypt = bcrypt(bcryptStrength);
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        encoders.put(BCRYPT, bcrypt);
+        encoders.put(ARGON2, argon2(argon2MemoryKb, argon2Iterations));
+        String idForEncode = ARGON2.equalsIgnoreCase(algorithm) ? ARGON2 : BCRYPT;
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(idForEncode, encoders);
+        encoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        return encoder;
+    }
+
+    public static BCryptPasswordEncoder bcrypt(int strength) {
+        return new BCryptPasswordEncoder(strength);
+    }
+
+    public static Argon2PasswordEncoder argon2(int memoryKb, int iterations) {
+        return new Argon2PasswordEncoder(ARGON2_SALT_LENGTH, ARGON2_HASH_LENGTH, ARGON2_PARALLELISM,
+            memoryKb, iterations);
+    }
+}
@@ -0,0 +1,7 @@
+package com.chat.userservice.util;
+
+public class PasswordHashingRejectedException extends RuntimeException {
+    public PasswordHashingRejectedException(String message) {
+        super(message);
+    }
+}
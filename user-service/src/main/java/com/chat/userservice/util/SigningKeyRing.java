@@ -0,0 +1,110 @@
+package com.chat.userservice.util;
+
+import java.math.BigInteger;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * P-256 keys used for ES256 tokens. The active key signs new tokens; every
+ * key in the ring stays valid for verification and is published as a JWK
+ * until it is removed from configuration.
+ */
+public class SigningKeyRing {
+
+    private final Map<String, PublicKey> publicKeys = new LinkedHashMap<>();
+    private String activeKid;
+    private PrivateKey activePrivateKey;
+
+    public void addKey(String kid, String publicKey, String privateKey) {
+        try {
+            KeyFactory factory = KeyFactory.getInstance("EC");
+            PublicKey pub = factory.generatePublic(new X509EncodedKeySpec(decode(publicKey)));
+            publicKeys.put(kid, pub);
+            if (privateKey != null && !privateKey.isBlank() && activeKid == null) {
+                activeKid = kid;
+                activePrivateKey = factory.generatePrivate(new PKCS8EncodedKeySpec(decode(privateKey)));
+            }
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            throw new IllegalStateException("Invalid signing key " + kid, e);
+        }
+    }
+
+    public void addGeneratedKey() {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+            generator.initialize(new ECGenParameterSpec("secp256r1"));
+            KeyPair pair = generator.generateKeyPair();
+            String kid = UUID.randomUUID().toString();
+            publicKeys.put(kid, pair.getPublic());
+            if (activeKid == null) {
+                activeKid = kid;
+                activePrivateKey = pair.getPrivate();
+            }
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to generate EC signing key", e);
+        }
+    }
+
+    public boolean hasActiveKey() {
+        return activeKid != null;
+    }
+
+    public String getActiveKid() {
+        return activeKid;
+    }
+
+    public PrivateKey getActivePrivateKey() {
+        return activePrivateKey;
+    }
+
+    public PublicKey getPublicKey(String kid) {
+        return publicKeys.get(kid);
+    }
+
+    public List<Map<String, Object>> toJwks() {
+        List<Map<String, Object>> keys = new ArrayList<>();
+        publicKeys.forEach((kid, key) -> {
+            ECPublicKey ec = (ECPublicKey) key;
+            Map<String, Object> jwk = new LinkedHashMap<>();
+            jwk.put("kty", "EC");
+            jwk.put("crv", "P-256");
+            jwk.put("kid", kid);
+            jwk.put("use", "sig");
+            jwk.put("alg", "ES256");
+            jwk.put("x", coordinate(ec.getW().getAffineX()));
+            jwk.put("y", coordinate(ec.getW().getAffineY()));
+            keys.add(jwk);
+        });
+        return keys;
+    }
+
+    private static String coordinate(BigInteger value) {
+        byte[] bytes = value.toByteArray();
+        byte[] fixed = new byte[32];
+        if (bytes.length > 32) {
+            bytes = Arrays.copyOfRange(bytes, bytes.length - 32, bytes.length);
+        }
+        System.arraycopy(bytes, 0, fixed, 32 - bytes.length, bytes.length);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(fixed);
+    }
+
+    private static byte[] decode(String key) {
+        String body = key.replaceAll("-----[A-Z ]+-----", "").replaceAll("\\s", "");
+        return Base64.getDecoder().decode(body);
+    }
+}
@@ -0,0 +1,98 @@
+package com.chat.userservice.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Approximate per-key token buckets in fixed memory. Keys hash into one
+ * cell per row (count-min style); each cell packs a token balance and its
+ * last refill time into one long, updated with CAS and no locks. A key is
+ * only throttled when every one of its cells is empty, so collisions can
+ * make limiting stricter but never looser. Memory stays at depth * width
+ * longs however many keys are seen; width should be sized to the number of
+ * distinct keys expected within one refill period.
+ */
+public class TokenBucketSketch {
+    private static final long MILLI = 1000L;
+    private static final long TIME_MASK = 0xFFFFFFFFL;
+    private static final long TOKENS_MASK = 0x7FFFFFFFL;
+    // Set on every written cell so an empty bucket is never mistaken for an untouched one
+    private static final long TOUCHED = 1L << 63;
+
+    private final AtomicLongArray cells;
+    private final int depth;
+    private final int width;
+    private final long capacityMilli;
+    private final double refillMilliPerMs;
+    private final LongSupplier clock;
+    private final long epoch;
+
+    public TokenBucketSketch(int capacity, double refillPerMinute, int depth, int width, LongSupplier clock) {
+        this.depth = depth;
+        this.width = Integer.highestOneBit(Math.max(16, width));
+        this.cells = new AtomicLongArray(this.depth * this.width);
+        this.capacityMilli = capacity * MILLI;
+        this.refillMilliPerMs = refillPerMinute * MILLI / 60_000.0;
+        this.clock = clock;
+        this.epoch = clock.getAsLong();
+    }
+
+    public TokenBucketSketch(int capacity, double refillPerMinute, int depth, int width) {
+        this(capacity, refillPerMinute, depth, width, System::currentTimeMillis);
+    }
+
+    public boolean tryAcquire(String key) {
+        long now = (clock.getAsLong() - epoch) & TIME_MASK;
+        int hash = spread(key.hashCode());
+        // Each cell over-counts the key's usage, so the fullest row is the closest estimate
+        long best = 0;
+        for (int row = 0; row < depth; row++) {
+            best = Math.max(best, available(cells.get(index(hash, row)), now));
+        }
+        if (best < MILLI) {
+            return false;
+        }
+        for (int row = 0; row < depth; row++) {
+            int index = index(hash, row);
+            long state;
+            long next;
+            do {
+                state = cells.get(index);
+                next = pack(Math.max(0, available(state, now) - MILLI), now);
+            } while (!cells.compareAndSet(index, state, next));
+        }
+        return true;
+    }
+
+    public long retryAfterSeconds() {
+        return Math.max(1, (long) Math.ceil(MILLI / refillMilliPerMs / 1000.0));
+    }
+
+    private long available(long state, long now) {
+        if ((state & TOUCHED) == 0) {
+            return capacityMilli;
+        }
+        long tokens = (state >>> 32) & TOKENS_MASK;
+        long last = state & TIME_MASK;
+        long elapsed = (now - last) & TIME_MASK;
+        return Math.min(capacityMilli, tokens + (long) (elapsed * refillMilliPerMs));
+    }
+
+    private static long pack(long tokensMilli, long now) {
+        return TOUCHED | (tokensMilli << 32) | now;
+    }
+
+    private int index(int hash, int row) {
+        int h = spread(hash + row * 0x9E3779B9);
+        return row * width + (h & (width - 1));
+    }
+
+    private static int spread(int h) {
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        return h;
+    }
+}
@@ -0,0 +1,121 @@
+package com.chat.userservice.util;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Revoked-token set, sharded into buckets by token expiry. A token's own
+ * {@code exp} picks its bucket, so a lookup touches one bucket: a Bloom
+ * filter that answers most "not revoked" checks without hashing into the
+ * exact set, then the exact set. Whole buckets are dropped once every token
+ * in them has expired, which is what keeps the set bounded.
+ */
+public class TokenDenylist {
+    private static final int HASHES = 4;
+
+    private final long bucketMillis;
+    private final int bloomBits;
+    private final Map<Long, Bucket> buckets = new ConcurrentHashMap<>();
+
+    public TokenDenylist(long bucketMillis, int bloomBits) {
+        this.bucketMillis = bucketMillis;
+        // Power of two, so bit indexes are a mask instead of a modulo
+        this.bloomBits = Integer.highestOneBit(Math.max(64, bloomBits));
+    }
+
+    /** @param key digest of the token, as produced by {@link VerifiedTokenCache#digest} */
+    public boolean revoke(String key, long expiresAt) {
+        if (expiresAt <= System.currentTimeMillis()) {
+            return false;
+        }
+        return buckets.computeIfAbsent(bucketOf(expiresAt), b -> new Bucket(bloomBits)).add(key);
+    }
+
+    public boolean isRevoked(String key, long expiresAt) {
+        Bucket bucket = buckets.get(bucketOf(expiresAt));
+        return bucket != null && bucket.contains(key);
+    }
+
+    // A bucket is kept until its last possible expiry has passed
+    public void dropExpired() {
+        long current = bucketOf(System.currentTimeMillis());
+        buckets.keySet().removeIf(bucket -> bucket < current);
+    }
+
+    public boolean isEmpty() {
+        return buckets.isEmpty();
+    }
+
+    public void clear() {
+        buckets.clear();
+    }
+
+    public int size() {
+        int size = 0;
+        for (Bucket bucket : buckets.values()) {
+            size += bucket.keys.size();
+        }
+        return size;
+    }
+
+    public int getBucketCount() {
+        return buckets.size();
+    }
+
+    private long bucketOf(long expiresAt) {
+        return expiresAt / bucketMillis;
+    }
+
+    private static final class Bucket {
+        final AtomicLongArray bloom;
+        final int mask;
+        final Set<String> keys = ConcurrentHashMap.newKeySet();
+
+        Bucket(int bits) {
+            bloom = new AtomicLongArray(bits / 64);
+            mask = bits - 1;
+        }
+
+        boolean add(String key) {
+            // Bloom bits first: a concurrent reader may see the key in the filter before the
+            // set, which only costs it a set lookup, never a missed revocation
+            long hash = mix(key.hashCode());
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32) | 1;
+            for (int i = 0; i < HASHES; i++) {
+                int bit = (h1 + i * h2) & mask;
+                long flag = 1L << bit;
+                long word;
+                do {
+                    word = bloom.get(bit >>> 6);
+                } while ((word & flag) == 0 && !bloom.compareAndSet(bit >>> 6, word, word | flag));
+            }
+            return keys.add(key);
+        }
+
+        boolean contains(String key) {
+            long hash = mix(key.hashCode());
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32) | 1;
+            for (int i = 0; i < HASHES; i++) {
+                int bit = (h1 + i * h2) & mask;
+                if ((bloom.get(bit >>> 6) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return keys.contains(key);
+        }
+
+        // Murmur3 finalizer; spreads the string hash over both halves
+        private static long mix(long h) {
+            h ^= h >>> 33;
+            h *= 0xff51afd7ed558ccdL;
+            h ^= h >>> 33;
+            h *= 0xc4ceb9fe1a85ec53L;
+            h ^= h >>> 33;
+            return h;
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.chat.userservice.util;
+
+import io.jsonwebtoken.JwtException;
+
+public class TokenRevokedException extends JwtException {
+    public TokenRevokedException(String subject) {
+        super("Token for " + subject + " has been revoked");
+    }
+}
@@ -0,0 +1,151 @@
+package com.chat.userservice.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of tokens whose signature has already been verified.
+ * Entries are keyed by a SHA-256 digest of the token and expire with the
+ * token's own expiry, so a hit never outlives the JWT itself. Once full,
+ * the least valuable entries are evicted to make room for new tokens.
+ */
+public class VerifiedTokenCache {
+
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+
+    private final int maxSize;
+    private final Cache<String, Entry> entries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public VerifiedTokenCache(int maxSize) {
+        this.maxSize = maxSize;
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(Math.max(maxSize, 0))
+                .expireAfter(new UntilTokenExpiry())
+                .build();
+    }
+
+    public Claims get(String token) {
+        if (token == null) {
+            misses.increment();
+            return null;
+        }
+        return getByDigest(digest(token));
+    }
+
+    public Claims getByDigest(String key) {
+        if (maxSize <= 0) {
+            misses.increment();
+            return null;
+        }
+        Entry entry = entries.getIfPresent(key);
+        if (entry != null) {
+            hits.increment();
+            return entry.claims;
+        }
+        misses.increment();
+        return null;
+    }
+
+    public void put(String token, Claims claims) {
+        putByDigest(digest(token), claims);
+    }
+
+    public void putByDigest(String key, Claims claims) {
+        if (maxSize <= 0 || claims.getExpiration() == null) {
+            return;
+        }
+        long expiresAt = claims.getExpiration().getTime();
+        if (expiresAt > System.currentTimeMillis()) {
+            entries.put(key, new Entry(claims, expiresAt));
+        }
+    }
+
+    public void evict(String token) {
+        evictByDigest(digest(token));
+    }
+
+    public void evictByDigest(String key) {
+        entries.invalidate(key);
+    }
+
+    // Linear scan; only used for the rare per-user invalidation
+    public void evictSubjects(Collection<String> subjects) {
+        Set<String> targets = new HashSet<>(subjects);
+        entries.asMap().values().removeIf(entry -> targets.contains(entry.claims.getSubject()));
+    }
+
+    public void evictExpired() {
+        entries.cleanUp();
+    }
+
+    public void clear() {
+        entries.invalidateAll();
+    }
+
+    public int size() {
+        return (int) entries.estimatedSize();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    // Also the key of TokenDenylist, so a validation hashes the token once
+    public static String digest(String token) {
+        MessageDigest md = SHA256.get();
+        md.reset();
+        return Base64.getEncoder().encodeToString(md.digest(token.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static final class Entry {
+        final Claims claims;
+        final long expiresAt;
+
+        Entry(Claims claims, long expiresAt) {
+            this.claims = claims;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    // Each entry lives until its token's exp; reads and overwrites leave that unchanged
+    private static final class UntilTokenExpiry implements Expiry<String, Entry> {
+        @Override
+        public long expireAfterCreate(String key, Entry entry, long currentTime) {
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, entry.expiresAt - System.currentTimeMillis()));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Entry entry, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, entry, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Entry entry, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+-- Written to be re-runnable over a schema previously created by ddl-auto=update
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS users (
+    id            BIGINT       NOT NULL PRIMARY KEY,
+    username      VARCHAR(255) NOT NULL,
+    email         VARCHAR(255) NOT NULL,
+    password      VARCHAR(255) NOT NULL,
+    active        BOOLEAN      NOT NULL DEFAULT FALSE,
+    created_at    TIMESTAMP(6),
+    last_seen     TIMESTAMP(6),
+    token_version INTEGER      NOT NULL DEFAULT 0,
+    CONSTRAINT uk_users_username UNIQUE (username),
+    CONSTRAINT uk_users_email UNIQUE (email)
+);
+
+ALTER TABLE users ADD COLUMN IF NOT EXISTS token_version INTEGER NOT NULL DEFAULT 0;
+
+-- Hibernate named the old unique constraints randomly; UserService maps violations by name
+DO $$
+DECLARE
+    c RECORD;
+BEGIN
+    FOR c IN
+        SELECT con.conname, att.attname
+        FROM pg_constraint con
+        JOIN pg_attribute att ON att.attrelid = con.conrelid AND att.attnum = con.conkey[1]
+        WHERE con.conrelid = 'users'::regclass
+          AND con.contype = 'u'
+          AND array_length(con.conkey, 1) = 1
+          AND att.attname IN ('username', 'email')
+          AND con.conname NOT IN ('uk_users_username', 'uk_users_email')
+    LOOP
+        EXECUTE format('ALTER TABLE users RENAME CONSTRAINT %I TO %I', c.conname, 'uk_users_' || c.attname);
+    END LOOP;
+END $$;
+
+-- Ids used to come from an IDENTITY column; start the pooled sequence past them
+SELECT setval('users_seq', (SELECT COALESCE(MAX(id), 0) FROM users) + 50, false);
@@ -0,0 +1,6 @@
+-- Fails if existing rows differ only by case; resolve those accounts before deploying
+CREATE UNIQUE INDEX IF NOT EXISTS ux_users_username_lower ON users (lower(username));
+CREATE UNIQUE INDEX IF NOT EXISTS ux_users_email_lower ON users (lower(email));
+
+-- countActiveUsers and the active=true dashboard page; inactive rows are never indexed
+CREATE INDEX IF NOT EXISTS ix_users_active ON users (id) WHERE active;
@@ -0,0 +1,9 @@
+-- Written in the same transaction as the user change; drained by UserOutboxRelay
+CREATE TABLE IF NOT EXISTS user_outbox (
+    id          BIGSERIAL    PRIMARY KEY,
+    event_type  VARCHAR(64)  NOT NULL,
+    user_id     BIGINT,
+    username    VARCHAR(255),
+    payload     TEXT         NOT NULL,
+    created_at  TIMESTAMP(6) NOT NULL DEFAULT now()
+);
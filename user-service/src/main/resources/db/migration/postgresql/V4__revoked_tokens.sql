@@ -0,0 +1,8 @@
+-- Logged-out tokens that have not expired yet; replicas pick up new rows by id
+CREATE TABLE IF NOT EXISTS revoked_tokens (
+    id          BIGSERIAL    PRIMARY KEY,
+    token_hash  VARCHAR(64)  NOT NULL,
+    expires_at  TIMESTAMP(6) NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS ix_revoked_tokens_expires_at ON revoked_tokens (expires_at);
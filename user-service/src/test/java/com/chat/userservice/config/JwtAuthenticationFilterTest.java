@@ -0,0 +1,144 @@
+package com.chat.userservice.config;
+
+import com.chat.userservice.entity.User;
+import com.chat.userservice.repository.UserRepository;
+import com.chat.userservice.util.JwtUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = "security.admin-usernames=ImportAdmin")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class JwtAuthenticationFilterTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @SpyBean
+    private JwtUtil jwtUtil;
+
+    private String token;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll();
+        userRepository.save(new User("filteruser", "filter@example.com", "encodedPassword"));
+        token = jwtUtil.generateToken("filteruser");
+        clearInvocations(jwtUtil);
+    }
+
+    @Test
+    void validate_ParsesTokenOncePerRequest() throws Exception {
+        mockMvc.perform(get("/api/users/validate")
+                .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.valid").value(true))
+                .andExpect(jsonPath("$.username").value("filteruser"));
+
+        verify(jwtUtil, times(1)).parseToken(anyString());
+        verify(jwtUtil, never()).extractUsername(anyString());
+        verify(jwtUtil, never()).isTokenValid(anyString());
+    }
+
+    @Test
+    void validate_EnrichedToken_ReturnsUserIdFromClaims() throws Exception {
+        User user = userRepository.findByUsername("filteruser").orElseThrow();
+        String enriched = jwtUtil.generateToken("filteruser", user.getId(), user.getTokenVersion());
+
+        mockMvc.perform(get("/api/users/validate")
+                .header("Authorization", "Bearer " + enriched))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.valid").value(true))
+                .andExpect(jsonPath("$.userId").value(user.getId()));
+    }
+
+    @Test
+    void logout_ParsesTokenOncePerRequest() throws Exception {
+        mockMvc.perform(post("/api/users/logout")
+                .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+
+        verify(jwtUtil, times(1)).parseToken(anyString());
+        verify(jwtUtil, never()).extractUsername(anyString());
+    }
+
+    @Test
+    void updatePassword_OtherUser_ParsesTokenOncePerRequest() throws Exception {
+        mockMvc.perform(put("/api/users/someoneelse/password")
+                .header("Authorization", "Bearer " + token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"newPassword\":\"secret\"}"))
+                .andExpect(status().isForbidden());
+
+        verify(jwtUtil, times(1)).parseToken(anyString());
+        verify(jwtUtil, never()).extractUsername(anyString());
+    }
+
+    @Test
+    void importUsers_RegularUser_Forbidden() throws Exception {
+        mockMvc.perform(post("/api/users/import")
+                .header("Authorization", "Bearer " + token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[]"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void importUsers_Admin_Allowed() throws Exception {
+        mockMvc.perform(post("/api/users/import")
+                .header("Authorization", "Bearer " + jwtUtil.generateToken("importadmin"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(0));
+    }
+
+    @Test
+    void exportUsers_RegularUser_Forbidden() throws Exception {
+        mockMvc.perform(get("/api/users/export")
+                .header("Authorization", "Bearer " + token))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void invalidToken_NotAuthenticated() throws Exception {
+        mockMvc.perform(get("/api/users/validate")
+                .header("Authorization", "Bearer invalid.token.here"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void validateBatch_NoCallerTokenRequired() throws Exception {
+        mockMvc.perform(post("/api/users/validate/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"tokens\":[\"" + token + "\",\"invalid.token.here\"]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results[0].valid").value(true))
+                .andExpect(jsonPath("$.results[0].username").value("filteruser"))
+                .andExpect(jsonPath("$.results[1].valid").value(false));
+    }
+
+    @Test
+    void jwks_PublicAndCacheable() throws Exception {
+        mockMvc.perform(get("/.well-known/jwks.json"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "max-age=300, public"))
+                .andExpect(jsonPath("$.keys[0].kty").value("EC"))
+                .andExpect(jsonPath("$.keys[0].kid").isNotEmpty());
+    }
+}
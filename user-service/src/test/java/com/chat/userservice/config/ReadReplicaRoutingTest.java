@@ -0,0 +1,138 @@
+package com.chat.userservice.config;
+
+import com.chat.userservice.service.UserBriefCache;
+import com.chat.userservice.service.UserExportService;
+import com.chat.userservice.service.UserService;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Two H2 databases stand in for the primary and a streaming replica
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1",
+    "datasource.routing.enabled=true",
+    "datasource.routing.replicas[0].url=" + ReadReplicaRoutingTest.REPLICA_URL,
+    "datasource.routing.replicas[0].username=sa",
+    "datasource.routing.replicas[0].password=password",
+    "datasource.routing.health-check-interval-ms=3600000",
+    "datasource.routing.lag-query=SELECT lag_ms FROM replica_lag",
+    "datasource.routing.max-lag-ms=1000",
+    "spring.datasource.hikari.connection-timeout=7000",
+    // Keep reads on the database instead of the shared second-level cache
+    "spring.jpa.properties.hibernate.cache.use_second_level_cache=false"
+})
+@ActiveProfiles("test")
+class ReadReplicaRoutingTest {
+    static final String REPLICA_URL = "jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserExportService userExportService;
+
+    @Autowired
+    private UserBriefCache userBriefCache;
+
+    @Autowired
+    private ReplicaRoutingDataSource routingDataSource;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private JdbcTemplate primary;
+    private JdbcTemplate replica;
+
+    @BeforeEach
+    void setUp() {
+        primary = new JdbcTemplate(new DriverManagerDataSource("jdbc:h2:mem:routing-primary", "sa", "password"));
+        DriverManagerDataSource replicaDataSource = new DriverManagerDataSource(REPLICA_URL, "sa", "password");
+        Flyway.configure().dataSource(replicaDataSource).locations("classpath:db/migration/h2").load().migrate();
+        replica = new JdbcTemplate(replicaDataSource);
+        replica.execute("CREATE TABLE IF NOT EXISTS replica_lag (lag_ms BIGINT)");
+        replica.update("DELETE FROM replica_lag");
+        replica.update("INSERT INTO replica_lag VALUES (0)");
+        primary.update("DELETE FROM users");
+        replica.update("DELETE FROM users");
+        replica.update("INSERT INTO users (id, username, email, password, active, token_version) " +
+                "VALUES (1000, 'replicated', 'replicated@example.com', 'x', false, 0)");
+        routingDataSource.checkReplicas();
+        userBriefCache.evictAll();
+    }
+
+    @Test
+    void lagTolerantReads_RoutedToReplica() throws Exception {
+        assertEquals(1, userService.lookupUsers(List.of(1000L), List.of()).size());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(1, ReplicaReads.run(() -> userExportService.writeNdjson(out)));
+        assertTrue(out.toString(StandardCharsets.UTF_8).contains("replicated"));
+    }
+
+    @Test
+    void replicaLoadedBriefs_LiveNoLongerThanMaxLag() {
+        Duration ttl = userBriefCache.getCache().policy().expireAfterWrite().orElseThrow().getExpiresAfter();
+
+        assertEquals(Duration.ofMillis(1000), ttl);
+    }
+
+    @Test
+    void otherReads_StayOnPrimary() {
+        // Logins, token versions and dashboard pages must see every committed write
+        assertTrue(userService.getUserByUsername("replicated").isEmpty());
+        assertFalse(userService.isTokenVersionCurrent(1000L, 0));
+        assertTrue(userService.getUserSummaries(0, 10, null).isEmpty());
+    }
+
+    @Test
+    void writes_RoutedToPrimary() {
+        userService.registerUser("written", "written@example.com", "password123");
+
+        assertEquals(1, primary.queryForObject("SELECT COUNT(*) FROM users WHERE username = 'written'", Integer.class));
+        assertEquals(0, replica.queryForObject("SELECT COUNT(*) FROM users WHERE username = 'written'", Integer.class));
+    }
+
+    @Test
+    void staleReplica_ReadsFallBackToPrimary() {
+        replica.update("UPDATE replica_lag SET lag_ms = 60000");
+        routingDataSource.checkReplicas();
+
+        assertTrue(routingDataSource.getAvailableReplicas().isEmpty());
+        assertEquals("STALE", ((Map<?, ?>) routingDataSource.describe().get("replica-0")).get("status"));
+        assertTrue(userService.lookupUsers(List.of(1000L), List.of()).isEmpty());
+
+        replica.update("UPDATE replica_lag SET lag_ms = 0");
+        routingDataSource.checkReplicas();
+        assertEquals(List.of("replica-0"), routingDataSource.getAvailableReplicas());
+    }
+
+    @Test
+    void pools_ReportHikariMetrics() {
+        userService.getUserSummaries(0, 10, null);
+
+        assertNotNull(meterRegistry.find("hikaricp.connections").tag("pool", "primary").gauge());
+        assertNotNull(meterRegistry.find("hikaricp.connections").tag("pool", "replica-0").gauge());
+    }
+
+    @Test
+    void pools_BindSpringHikariSettings() {
+        for (Object pool : routingDataSource.getResolvedDataSources().values()) {
+            assertEquals(7000, ((HikariDataSource) pool).getConnectionTimeout());
+        }
+    }
+}
@@ -1,11 +1,22 @@
 package com.chat.userservice.controller;
 
 import com.chat.userservice.config.TestSecurityConfig;
+import com.chat.userservice.dto.UserBrief;
+import com.chat.userservice.dto.UserSummary;
 import com.chat.userservice.entity.User;
+import com.chat.userservice.service.DashboardCache;
+import com.chat.userservice.service.PresenceRegistry;
+import com.chat.userservice.service.TokenRevocationService;
+import com.chat.userservice.service.UserExportService;
+import com.chat.userservice.service.UserImportService;
 import com.chat.userservice.service.UserService;
+import com.chat.userservice.service.UserVersion;
+import com.chat.userservice.service.UsernameIndex;
 import com.chat.userservice.util.JwtUtil;
+import com.chat.userservice.util.PasswordHashingRejectedException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
@@ -17,13 +28,14 @@ import org.springframework.test.web.servlet.MockMvc;
 import java.time.LocalDateTime;
 import java.util.*;
 
+import static org.hamcrest.Matchers.not;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(UserController.class)
-@Import(TestSecurityConfig.class)
+@Import({TestSecurityConfig.class, UserVersion.class, DashboardCache.class})
 class UserControllerTest {
 
     @Autowired
@@ -32,16 +44,38 @@ class UserControllerTest {
     @MockBean
     private UserService userService;
 
+    @MockBean
+    private UserExportService userExportService;
+
+    @MockBean
+    private UserImportService userImportService;
+    
+    @MockBean
+    private PresenceRegistry presenceRegistry;
+
+    @MockBean
+    private TokenRevocationService tokenRevocationService;
+
+    @MockBean
+    private UsernameIndex usernameIndex;
+
     @MockBean
     private JwtUtil jwtUtil;
 
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private UserVersion userVersion;
+
+    @Autowired
+    private DashboardCache dashboardCache;
+
     private User testUser;
 
     @BeforeEach
     void setUp() {
+        dashboardCache.getCache().invalidateAll();
         testUser = new User();
         testUser.setId(1L);
         testUser.setUsername("testuser");
@@ -82,7 +116,7 @@ class UserControllerTest {
         mockMvc.perform(post("/api/users/register")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(request)))
-                .andExpected(status().isBadRequest())
+                .andExpect(status().isBadRequest())
                 .andExpect(jsonPath("$.error").value("Username already exists"));
     }
 
@@ -93,8 +127,8 @@ class UserControllerTest {
         request.put("password", "password123");
 
         when(userService.authenticateUser(anyString(), anyString()))
-                .thenReturn(testUser);
-        when(jwtUtil.generateToken(anyString()))
+                .thenReturn(Optional.of(testUser));
+        when(jwtUtil.generateToken(anyString(), anyLong(), anyInt()))
                 .thenReturn("mock-jwt-token");
 
         mockMvc.perform(post("/api/users/login")
@@ -113,7 +147,7 @@ class UserControllerTest {
         request.put("password", "wrongpassword");
 
         when(userService.authenticateUser(anyString(), anyString()))
-                .thenReturn(null);
+                .thenReturn(Optional.empty());
 
         mockMvc.perform(post("/api/users/login")
                 .contentType(MediaType.APPLICATION_JSON)
@@ -123,6 +157,7 @@ class UserControllerTest {
     }
 
     @Test
+    @Disabled("There is no unpaginated GET /api/users; listings go through the keyset-paginated /dashboard")
     void getAllUsers_Success() throws Exception {
         List<User> users = Arrays.asList(testUser);
         when(userService.getAllUsers()).thenReturn(users);
@@ -147,8 +182,9 @@ class UserControllerTest {
     }
 
     @Test
+    @Disabled("Activity is set by login, logout and presence heartbeats; there is no PUT /{username}/activity endpoint")
     void updateUserActivity_Success() throws Exception {
-        when(userService.updateUserActivity(anyString())).thenReturn(testUser);
+        doNothing().when(userService).updateUserActivity(anyString(), anyBoolean());
 
         mockMvc.perform(put("/api/users/testuser/activity")
                 .header("Authorization", "Bearer mock-token"))
@@ -157,12 +193,160 @@ class UserControllerTest {
     }
 
     @Test
+    @Disabled("Activity is set by login, logout and presence heartbeats; there is no PUT /{username}/activity endpoint")
     void updateUserActivity_UserNotFound() throws Exception {
-        when(userService.updateUserActivity(anyString())).thenReturn(null);
+        doNothing().when(userService).updateUserActivity(anyString(), anyBoolean());
 
         mockMvc.perform(put("/api/users/nonexistent/activity")
                 .header("Authorization", "Bearer mock-token"))
                 .andExpect(status().isNotFound())
                 .andExpect(jsonPath("$.error").value("User not found"));
     }
+
+    @Test
+    void getDashboard_ReturnsPageWithCursor() throws Exception {
+        UserSummary summary = new UserSummary(1L, "testuser", "test@example.com", true, null);
+        when(userService.getUserSummaries(0L, 1, null)).thenReturn(List.of(summary));
+        when(userService.getTotalUsers()).thenReturn(10L);
+        when(userService.getActiveUsers()).thenReturn(8L);
+
+        mockMvc.perform(get("/api/users/dashboard")
+                .param("limit", "1")
+                .header("Authorization", "Bearer mock-token"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users[0].username").value("testuser"))
+                .andExpect(jsonPath("$.users[0].password").doesNotExist())
+                .andExpect(jsonPath("$.nextCursor").value(1))
+                .andExpect(jsonPath("$.totalUsers").value(10));
+    }
+
+    @Test
+    void getDashboard_NotModifiedUntilVersionChanges() throws Exception {
+        UserSummary summary = new UserSummary(1L, "testuser", "test@example.com", true, null);
+        when(userService.getUserSummaries(0L, 1, null)).thenReturn(List.of(summary));
+
+        String etag = mockMvc.perform(get("/api/users/dashboard")
+                .param("limit", "1")
+                .header("Authorization", "Bearer mock-token"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/users/dashboard")
+                .param("limit", "1")
+                .header("If-None-Match", etag)
+                .header("Authorization", "Bearer mock-token"))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etag));
+        verify(userService, times(1)).getUserSummaries(0L, 1, null);
+
+        userVersion.bump();
+
+        mockMvc.perform(get("/api/users/dashboard")
+                .param("limit", "1")
+                .header("If-None-Match", etag)
+                .header("Authorization", "Bearer mock-token"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users[0].username").value("testuser"));
+        verify(userService, times(2)).getUserSummaries(0L, 1, null);
+    }
+
+    @Test
+    void getDashboard_PagesHaveDistinctETags() throws Exception {
+        UserSummary first = new UserSummary(1L, "testuser", "test@example.com", true, null);
+        UserSummary second = new UserSummary(2L, "otheruser", "other@example.com", false, null);
+        when(userService.getUserSummaries(0L, 1, null)).thenReturn(List.of(first));
+        when(userService.getUserSummaries(1L, 1, null)).thenReturn(List.of(second));
+
+        String etag = mockMvc.perform(get("/api/users/dashboard")
+                .param("limit", "1")
+                .header("Authorization", "Bearer mock-token"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/users/dashboard")
+                .param("afterId", "1")
+                .param("limit", "1")
+                .header("If-None-Match", etag)
+                .header("Authorization", "Bearer mock-token"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", not(etag)))
+                .andExpect(jsonPath("$.users[0].username").value("otheruser"));
+    }
+
+    @Test
+    void getDashboard_LimitTooLarge() throws Exception {
+        mockMvc.perform(get("/api/users/dashboard")
+                .param("limit", "100000")
+                .header("Authorization", "Bearer mock-token"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void lookupUsers_ReturnsCompactUsers() throws Exception {
+        when(userService.lookupUsers(List.of(1L), List.of("bob")))
+                .thenReturn(List.of(new UserBrief(1L, "testuser", true, null), new UserBrief(2L, "bob", false, null)));
+
+        mockMvc.perform(get("/api/users/batch")
+                .param("ids", "1")
+                .param("usernames", "bob")
+                .header("Authorization", "Bearer mock-token"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users[1].username").value("bob"))
+                .andExpect(jsonPath("$.users[0].email").doesNotExist());
+    }
+
+    @Test
+    void lookupUsers_TooMany() throws Exception {
+        List<Long> ids = new ArrayList<>();
+        for (long i = 0; i < 500; i++) {
+            ids.add(i);
+        }
+
+        mockMvc.perform(post("/api/users/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Map.of("ids", ids)))
+                .header("Authorization", "Bearer mock-token"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void loginUser_HashingSaturated() throws Exception {
+        Map<String, String> request = new HashMap<>();
+        request.put("username", "testuser");
+        request.put("password", "password123");
+
+        when(userService.authenticateUser(anyString(), anyString()))
+                .thenThrow(new PasswordHashingRejectedException("Too many concurrent logins, please retry"));
+
+        mockMvc.perform(post("/api/users/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"));
+    }
+
+    @Test
+    void loginUser_RateLimitedPerUsername() throws Exception {
+        Map<String, String> request = new HashMap<>();
+        request.put("username", "stuffedaccount");
+        request.put("password", "guess");
+
+        when(userService.authenticateUser(eq("stuffedaccount"), anyString()))
+                .thenReturn(Optional.empty());
+
+        for (int i = 0; i < 5; i++) {
+            mockMvc.perform(post("/api/users/login")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(request)))
+                    .andExpect(status().isUnauthorized());
+        }
+        mockMvc.perform(post("/api/users/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists("Retry-After"));
+
+        verify(userService, times(5)).authenticateUser(eq("stuffedaccount"), anyString());
+    }
 }
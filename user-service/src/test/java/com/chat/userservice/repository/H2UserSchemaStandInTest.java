@@ -0,0 +1,68 @@
+package com.chat.userservice.repository;
+
+import com.chat.userservice.entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the H2 stand-in for V2 that the test profile migrates: generated
+ * lower-cased columns and an (active, id) index. The shipped PostgreSQL V2
+ * uses lower() expression indexes and a partial ix_users_active instead, so
+ * these plans say nothing about whether Postgres uses those indexes.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+class H2UserSchemaStandInTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAllInBatch();
+        userRepository.saveAndFlush(new User("alice", "alice@example.com", "encodedPassword"));
+    }
+
+    @Test
+    void usernameAndEmail_UniqueIgnoringCase() {
+        assertThrows(DataIntegrityViolationException.class,
+            () -> userRepository.saveAndFlush(new User("ALICE", "other@example.com", "encodedPassword")));
+        assertThrows(DataIntegrityViolationException.class,
+            () -> userRepository.saveAndFlush(new User("other", "Alice@Example.com", "encodedPassword")));
+    }
+
+    @Test
+    void countActiveUsers_UsesStandInActiveIndex() {
+        String plan = explain("SELECT COUNT(*) FROM users WHERE active = TRUE");
+
+        assertTrue(plan.contains("IX_USERS_ACTIVE"), plan);
+    }
+
+    @Test
+    void activeDashboardPage_UsesStandInActiveIndex() {
+        String plan = explain("SELECT id, username FROM users WHERE id > 0 AND active = TRUE ORDER BY id LIMIT 100");
+
+        assertTrue(plan.contains("IX_USERS_ACTIVE"), plan);
+    }
+
+    @Test
+    void findByUsername_UsesUniqueIndex() {
+        String plan = explain("SELECT * FROM users WHERE username = 'alice'");
+
+        assertTrue(plan.contains("UK_USERS_USERNAME"), plan);
+    }
+
+    private String explain(String sql) {
+        return jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class).toUpperCase();
+    }
+}
@@ -0,0 +1,72 @@
+package com.chat.userservice.repository;
+
+import com.chat.userservice.dto.UserSummary;
+import com.chat.userservice.entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+class UserRepositoryTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll();
+        for (int i = 1; i <= 5; i++) {
+            User user = new User("user" + i, "user" + i + "@example.com", "encodedPassword");
+            user.setActive(i % 2 == 1);
+            userRepository.save(user);
+        }
+    }
+
+    @Test
+    void findSummariesAfter_WalksPagesByCursor() {
+        List<UserSummary> first = userRepository.findSummariesAfter(0L, PageRequest.of(0, 2));
+        List<UserSummary> second = userRepository.findSummariesAfter(first.get(1).getId(), PageRequest.of(0, 2));
+        List<UserSummary> last = userRepository.findSummariesAfter(second.get(1).getId(), PageRequest.of(0, 2));
+
+        assertEquals(List.of("user1", "user2"), first.stream().map(UserSummary::getUsername).toList());
+        assertEquals(List.of("user3", "user4"), second.stream().map(UserSummary::getUsername).toList());
+        assertEquals(List.of("user5"), last.stream().map(UserSummary::getUsername).toList());
+    }
+
+    @Test
+    void findSummariesAfter_FiltersByActive() {
+        List<UserSummary> active = userRepository.findSummariesAfter(0L, true, PageRequest.of(0, 10));
+
+        assertEquals(List.of("user1", "user3", "user5"), active.stream().map(UserSummary::getUsername).toList());
+        assertTrue(active.stream().allMatch(UserSummary::isActive));
+    }
+
+    @Test
+    void replacePasswordHash_OnlyReplacesTheExpectedHash() {
+        User user = userRepository.findByUsername("user2").orElseThrow();
+        // Written after the login loaded its copy; the rehash must not undo it
+        user.setActive(true);
+        userRepository.saveAndFlush(user);
+        entityManager.clear();
+
+        assertEquals(0, userRepository.replacePasswordHash(user.getId(), "someOtherHash", "rehashed"));
+        assertEquals(1, userRepository.replacePasswordHash(user.getId(), "encodedPassword", "rehashed"));
+
+        entityManager.clear();
+        User reloaded = userRepository.findById(user.getId()).orElseThrow();
+        assertEquals("rehashed", reloaded.getPassword());
+        assertTrue(reloaded.isActive());
+    }
+}
@@ -0,0 +1,61 @@
+package com.chat.userservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InvalidationBusTest {
+
+    private final LoopbackInvalidationTransport transport = new LoopbackInvalidationTransport();
+    private InvalidationBus nodeA;
+    private InvalidationBus nodeB;
+
+    private final List<Set<String>> evictedOnA = new ArrayList<>();
+    private final List<Set<String>> evictedOnB = new ArrayList<>();
+    private final AtomicInteger clearedOnB = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        nodeA = new InvalidationBus(transport, new ObjectMapper(), 3);
+        nodeB = new InvalidationBus(transport, new ObjectMapper(), 3);
+        nodeA.start();
+        nodeB.start();
+        nodeA.register(InvalidationBus.USERS, keys -> evictedOnA.add(Set.copyOf(keys)), () -> { });
+        nodeB.register(InvalidationBus.USERS, keys -> evictedOnB.add(Set.copyOf(keys)), clearedOnB::incrementAndGet);
+    }
+
+    @Test
+    void flush_CoalescesBurstIntoOneMessageForPeers() {
+        nodeA.broadcast(InvalidationBus.USERS, "alice");
+        nodeA.broadcast(InvalidationBus.USERS, List.of("bob", "alice"));
+        nodeA.broadcast(InvalidationBus.TOKENS, "alice");
+
+        assertTrue(evictedOnB.isEmpty());
+        nodeA.flush();
+        nodeA.flush();
+
+        assertEquals(List.of(Set.of("alice", "bob")), evictedOnB);
+        assertTrue(evictedOnA.isEmpty());
+        assertEquals(1, nodeA.getSent());
+        assertEquals(1, nodeB.getReceived());
+        assertEquals(0, nodeA.getReceived());
+    }
+
+    @Test
+    void flush_CollapsesOversizedBurstToEvictAll() {
+        nodeA.broadcast(InvalidationBus.USERS, List.of("a", "b", "c", "d"));
+        nodeA.broadcast(InvalidationBus.USERS, "e");
+
+        nodeA.flush();
+
+        assertTrue(evictedOnB.isEmpty());
+        assertEquals(1, clearedOnB.get());
+    }
+}
@@ -0,0 +1,70 @@
+package com.chat.userservice.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PresenceBroadcasterTest {
+
+    private PresenceBroadcaster broadcaster;
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() {
+        broadcaster = new PresenceBroadcaster(2);
+        ReflectionTestUtils.setField(broadcaster, "maxQueuedEvents", 4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        broadcaster.shutdown();
+    }
+
+    @Test
+    void subscribe_SnapshotPrecedesLaterDeltas() throws Exception {
+        broadcaster.publish(Map.of("username", "before"));
+        RecordingEmitter client = new RecordingEmitter(null);
+        broadcaster.subscribe(client, () -> List.of(Map.of("username", "alice")));
+        broadcaster.publish(Map.of("username", "bob"));
+
+        client.awaitEvents(2);
+        assertTrue(client.events.get(0).contains("event:snapshot"));
+        assertTrue(client.events.get(0).contains("alice"));
+        assertTrue(client.events.get(1).contains("event:presence"));
+        assertTrue(client.events.get(1).contains("bob"));
+        assertEquals(2, client.events.size());
+    }
+
+    @Test
+    void slowClient_DoesNotDelayOthers() throws Exception {
+        RecordingEmitter slow = new RecordingEmitter(release);
+        RecordingEmitter fast = new RecordingEmitter(null);
+        broadcaster.subscribe(slow, List::of);
+        broadcaster.subscribe(fast, List::of);
+
+        broadcaster.publish(Map.of("username", "alice"));
+        broadcaster.publish(Map.of("username", "bob"));
+
+        fast.awaitEvents(3);
+        assertTrue(slow.events.isEmpty());
+    }
+
+    @Test
+    void laggingClient_IsDropped() {
+        broadcaster.subscribe(new RecordingEmitter(release), List::of);
+
+        for (int i = 0; i < 10; i++) {
+            broadcaster.publish(Map.of("username", "user" + i));
+        }
+
+        assertEquals(0, broadcaster.getSubscriberCount());
+    }
+}
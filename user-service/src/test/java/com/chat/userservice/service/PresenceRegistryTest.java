@@ -0,0 +1,141 @@
+package com.chat.userservice.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PresenceRegistryTest {
+
+    @Mock
+    private PresenceBroadcaster broadcaster;
+
+    @InjectMocks
+    private PresenceRegistry presenceRegistry;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(presenceRegistry, "ttlMs", 3000L);
+        ReflectionTestUtils.setField(presenceRegistry, "tickMs", 1000L);
+        ReflectionTestUtils.invokeMethod(presenceRegistry, "init");
+    }
+
+    @Test
+    void heartbeat_PublishesOnlineOnlyOnce() {
+        presenceRegistry.heartbeat(1L, "alice");
+        presenceRegistry.heartbeat(1L, "alice");
+
+        assertTrue(presenceRegistry.isOnline(1L));
+        verify(broadcaster, times(1)).publish(any());
+    }
+
+    @Test
+    void tick_ExpiresAfterTtl() {
+        presenceRegistry.heartbeat(1L, "alice");
+
+        presenceRegistry.tick();
+        presenceRegistry.tick();
+        assertTrue(presenceRegistry.isOnline(1L));
+        presenceRegistry.tick();
+
+        assertFalse(presenceRegistry.isOnline(1L));
+        ArgumentCaptor<Map<String, Object>> delta = ArgumentCaptor.forClass(Map.class);
+        verify(broadcaster, times(2)).publish(delta.capture());
+        assertEquals(false, delta.getValue().get("online"));
+        assertEquals("alice", delta.getValue().get("username"));
+    }
+
+    @Test
+    void heartbeat_ExtendsDeadline() {
+        presenceRegistry.heartbeat(1L, "alice");
+        presenceRegistry.tick();
+        presenceRegistry.tick();
+
+        presenceRegistry.heartbeat(1L, "alice");
+        presenceRegistry.tick();
+        presenceRegistry.tick();
+
+        assertTrue(presenceRegistry.isOnline(1L));
+        presenceRegistry.tick();
+        assertFalse(presenceRegistry.isOnline(1L));
+    }
+
+    @Test
+    void remove_PublishesOffline() {
+        presenceRegistry.heartbeat(1L, "alice");
+
+        presenceRegistry.remove(1L);
+        presenceRegistry.remove(1L);
+
+        assertFalse(presenceRegistry.isOnline(1L));
+        assertTrue(presenceRegistry.snapshot().isEmpty());
+        verify(broadcaster, times(2)).publish(any());
+    }
+
+    @Test
+    void tickRacingHeartbeat_DeltasArriveInOrder() throws Exception {
+        // Pausing before each offline delta widens the window a heartbeat could slip into
+        PresenceBroadcaster realBroadcaster = new PresenceBroadcaster(1) {
+            @Override
+            public void publish(Map<String, Object> delta) {
+                if (Boolean.FALSE.equals(delta.get("online"))) {
+                    try {
+                        Thread.sleep(1);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                super.publish(delta);
+            }
+        };
+        ReflectionTestUtils.setField(realBroadcaster, "maxQueuedEvents", 100_000);
+        ReflectionTestUtils.setField(presenceRegistry, "broadcaster", realBroadcaster);
+        // One-tick TTL, so every tick expires the user and the next heartbeat brings them back
+        ReflectionTestUtils.setField(presenceRegistry, "ttlMs", 1000L);
+        ReflectionTestUtils.invokeMethod(presenceRegistry, "init");
+        RecordingEmitter client = new RecordingEmitter(null);
+        realBroadcaster.subscribe(client, presenceRegistry::snapshot);
+        try {
+            Thread ticker = new Thread(() -> {
+                for (int i = 0; i < 500; i++) {
+                    presenceRegistry.tick();
+                }
+            });
+            ticker.start();
+            for (int i = 0; i < 500; i++) {
+                presenceRegistry.heartbeat(1L, "alice");
+            }
+            ticker.join();
+            realBroadcaster.publish(Map.of("username", "end-of-test"));
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (client.events.stream().noneMatch(event -> event.contains("end-of-test")) && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            List<Boolean> deltas = client.events.stream()
+                .filter(event -> event.startsWith("event:presence") && event.contains("alice"))
+                .map(event -> event.contains("online=true"))
+                .toList();
+            assertFalse(deltas.isEmpty());
+            for (int i = 0; i < deltas.size(); i++) {
+                assertEquals(i % 2 == 0, deltas.get(i), "delta " + i + " out of order");
+            }
+            assertEquals(presenceRegistry.isOnline(1L), deltas.get(deltas.size() - 1));
+        } finally {
+            realBroadcaster.shutdown();
+        }
+    }
+}
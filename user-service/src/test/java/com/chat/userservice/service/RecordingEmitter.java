@@ -0,0 +1,47 @@
+package com.chat.userservice.service;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/** Captures what a subscriber would be sent; optionally blocks every send until released. */
+final class RecordingEmitter extends SseEmitter {
+    final List<String> events = new CopyOnWriteArrayList<>();
+    private final CountDownLatch blockUntil;
+
+    RecordingEmitter(CountDownLatch blockUntil) {
+        this.blockUntil = blockUntil;
+    }
+
+    @Override
+    public void send(SseEventBuilder builder) {
+        if (blockUntil != null) {
+            try {
+                blockUntil.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        StringBuilder event = new StringBuilder();
+        builder.build().forEach(part -> event.append(part.getData()));
+        events.add(event.toString());
+    }
+
+    @Override
+    public void complete() {
+    }
+
+    void awaitEvents(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (events.size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(count, events.size());
+    }
+}
@@ -0,0 +1,95 @@
+package com.chat.userservice.service;
+
+import com.chat.userservice.entity.User;
+import com.chat.userservice.repository.UserRepository;
+import com.chat.userservice.util.JwtUtil;
+import com.chat.userservice.util.TokenRevokedException;
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+    "activity.flush-interval-ms=3600000",
+    "jwt.revocation.sync-interval-ms=3600000"
+})
+@ActiveProfiles("test")
+class TokenRevocationServiceTest {
+
+    @Autowired
+    private TokenRevocationService revocationService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserActivityBuffer activityBuffer;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        activityBuffer.flush();
+        userRepository.deleteAllInBatch();
+        jdbcTemplate.update("DELETE FROM revoked_tokens");
+        jwtUtil.getDenylist().clear();
+        jwtUtil.getTokenCache().clear();
+    }
+
+    @Test
+    void revoke_RejectsOnlyTheRevokedToken() {
+        User alice = userRepository.save(new User("alice", "alice@example.com", "encodedPassword"));
+        String revoked = jwtUtil.generateToken("alice", alice.getId(), alice.getTokenVersion());
+        String other = jwtUtil.generateToken("bob", alice.getId() + 1, 0);
+        Claims claims = jwtUtil.parseToken(revoked);
+
+        assertTrue(revocationService.revoke(revoked, claims));
+        assertFalse(revocationService.revoke(revoked, claims));
+
+        assertThrows(TokenRevokedException.class, () -> jwtUtil.parseToken(revoked));
+        assertFalse(jwtUtil.isTokenValid(revoked));
+        assertEquals(List.of(Map.of("valid", false)), userService.validateTokens(List.of(revoked)));
+        assertTrue(jwtUtil.isTokenValid(other));
+    }
+
+    @Test
+    void sync_LoadsRevocationsWrittenByOtherReplicas() {
+        String token = jwtUtil.generateToken("alice", 1L, 0);
+        Claims claims = jwtUtil.parseToken(token);
+        revocationService.revoke(token, claims);
+        jwtUtil.getDenylist().clear();
+        assertTrue(jwtUtil.isTokenValid(token));
+
+        revocationService.sync();
+
+        assertFalse(jwtUtil.isTokenValid(token));
+    }
+
+    @Test
+    void revokeAllTokens_InvalidatesEarlierVersions() {
+        User alice = userRepository.save(new User("alice", "alice@example.com", "encodedPassword"));
+        int version = alice.getTokenVersion();
+        assertTrue(userService.isTokenVersionCurrent(alice.getId(), version));
+
+        assertTrue(userService.revokeAllTokens("alice"));
+
+        assertFalse(userService.isTokenVersionCurrent(alice.getId(), version));
+        assertTrue(userService.isTokenVersionCurrent(alice.getId(), version + 1));
+        assertFalse(userService.revokeAllTokens("nobody"));
+    }
+}
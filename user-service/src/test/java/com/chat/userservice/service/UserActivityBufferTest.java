@@ -0,0 +1,73 @@
+package com.chat.userservice.service;
+
+import com.chat.userservice.entity.User;
+import com.chat.userservice.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "activity.flush-interval-ms=3600000")
+@ActiveProfiles("test")
+class UserActivityBufferTest {
+
+    @Autowired
+    private UserActivityBuffer activityBuffer;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserCounters userCounters;
+
+    @BeforeEach
+    void setUp() {
+        activityBuffer.flush();
+        userRepository.deleteAllInBatch();
+        userRepository.save(new User("alice", "alice@example.com", "encodedPassword"));
+        userRepository.save(new User("bob", "bob@example.com", "encodedPassword"));
+        userCounters.reconcile();
+    }
+
+    @Test
+    void record_MergesUpdatesPerUser() {
+        activityBuffer.record("alice", true);
+        activityBuffer.record("alice", false);
+        activityBuffer.record("alice", true);
+        activityBuffer.record("bob", true);
+
+        assertEquals(2, activityBuffer.size());
+        assertFalse(userRepository.findByUsername("alice").orElseThrow().isActive());
+    }
+
+    @Test
+    void flush_WritesLatestStateAndCounters() {
+        long activeBefore = userCounters.getActiveUsers();
+        activityBuffer.record("alice", true);
+        activityBuffer.record("bob", true);
+        activityBuffer.record("bob", false);
+
+        activityBuffer.flush();
+
+        User alice = userRepository.findByUsername("alice").orElseThrow();
+        User bob = userRepository.findByUsername("bob").orElseThrow();
+        assertTrue(alice.isActive());
+        assertNotNull(alice.getLastSeen());
+        assertFalse(bob.isActive());
+        assertNotNull(bob.getLastSeen());
+        assertEquals(0, activityBuffer.size());
+        assertEquals(activeBefore + 1, userCounters.getActiveUsers());
+    }
+
+    @Test
+    void flush_UnknownUserIgnored() {
+        activityBuffer.record("nobody", true);
+
+        activityBuffer.flush();
+
+        assertEquals(0, activityBuffer.size());
+    }
+}
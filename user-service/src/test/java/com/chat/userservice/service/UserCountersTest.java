@@ -0,0 +1,68 @@
+package com.chat.userservice.service;
+
+import com.chat.userservice.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserCountersTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private UserVersion userVersion;
+
+    @InjectMocks
+    private UserCounters userCounters;
+
+    @Test
+    void writes_UpdateCountersWithoutQueries() {
+        userCounters.userRegistered();
+        userCounters.userRegistered();
+        userCounters.activityChanged(false, true);
+        userCounters.activityChanged(true, true);
+
+        assertEquals(2L, userCounters.getTotalUsers());
+        assertEquals(1L, userCounters.getActiveUsers());
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void applyDeltas_AddsPeerWritesWithoutQueries() {
+        userCounters.applyDeltas(List.of(userCounters.delta(1, 0), userCounters.delta(1, 0), userCounters.delta(0, 3)));
+        userCounters.applyDeltas(List.of(userCounters.delta(0, -1)));
+
+        assertEquals(2L, userCounters.getTotalUsers());
+        assertEquals(2L, userCounters.getActiveUsers());
+        verify(userVersion, times(2)).bump();
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void delta_EqualChangesStayDistinct() {
+        assertNotEquals(userCounters.delta(1, 0), userCounters.delta(1, 0));
+    }
+
+    @Test
+    void reconcile_CorrectsDrift() {
+        userCounters.userRegistered();
+        userCounters.activityChanged(false, true);
+        when(userRepository.count()).thenReturn(10L);
+        when(userRepository.countActiveUsers()).thenReturn(4L);
+
+        userCounters.reconcile();
+
+        assertEquals(10L, userCounters.getTotalUsers());
+        assertEquals(4L, userCounters.getActiveUsers());
+        verify(userVersion).bump();
+    }
+}
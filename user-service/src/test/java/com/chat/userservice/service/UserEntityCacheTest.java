@@ -0,0 +1,101 @@
+package com.chat.userservice.service;
+
+import com.chat.userservice.entity.User;
+import com.chat.userservice.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "activity.flush-interval-ms=3600000")
+@ActiveProfiles("test")
+class UserEntityCacheTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserActivityBuffer activityBuffer;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        activityBuffer.flush();
+        userRepository.deleteAllInBatch();
+        entityManagerFactory.getCache().evictAll();
+        userRepository.save(new User("alice", "alice@example.com", passwordEncoder.encode("password123")));
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAllInBatch();
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    void findByUsername_RepeatLookupsServedFromCache() {
+        userRepository.findByUsername("alice").orElseThrow();
+        long statements = statistics.getPrepareStatementCount();
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals("alice", userRepository.findByUsername("alice").orElseThrow().getUsername());
+        }
+
+        assertEquals(statements, statistics.getPrepareStatementCount());
+        assertTrue(statistics.getNaturalIdCacheHitCount() >= 10);
+        assertTrue(statistics.getSecondLevelCacheHitCount() >= 10);
+    }
+
+    @Test
+    void activityFlush_EvictsCachedUser() {
+        assertFalse(userRepository.findByUsername("alice").orElseThrow().isActive());
+
+        userService.updateUserActivity("alice", true);
+        activityBuffer.flush();
+
+        assertTrue(userRepository.findByUsername("alice").orElseThrow().isActive());
+    }
+
+    @Test
+    void updatePassword_RefreshesCachedUser() {
+        userRepository.findByUsername("alice").orElseThrow();
+
+        assertTrue(userService.updatePassword("alice", "newPassword456"));
+
+        assertTrue(userService.authenticateUser("alice", "newPassword456").isPresent());
+        assertFalse(userService.authenticateUser("alice", "password123").isPresent());
+    }
+
+    @Test
+    void cacheStatistics_ExposedAsMeters() {
+        userRepository.findByUsername("alice");
+        userRepository.findByUsername("alice");
+
+        assertNotNull(meterRegistry.find("hibernate.second.level.cache.requests").tag("result", "hit").functionCounter());
+        assertNotNull(meterRegistry.find("hibernate.cache.natural.id.requests").tag("result", "hit").functionCounter());
+    }
+}
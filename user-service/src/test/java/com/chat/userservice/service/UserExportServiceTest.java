@@ -0,0 +1,136 @@
+package com.chat.userservice.service;
+
+import com.chat.userservice.entity.User;
+import com.chat.userservice.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class UserExportServiceTest {
+
+    @Autowired
+    private UserExportService userExportService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAllInBatch();
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void writeCsv_EscapesSpecialCharacters() throws IOException {
+        User user = new User("comma,user", "quote\"@example.com", "encodedPassword");
+        userRepository.save(user);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = userExportService.writeCsv(out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(1, rows);
+        assertEquals("id,username,email,active,createdAt,lastSeen", lines[0]);
+        assertTrue(lines[1].contains(",\"comma,user\",\"quote\"\"@example.com\",false,"));
+        assertFalse(out.toString(StandardCharsets.UTF_8).contains("encodedPassword"));
+    }
+
+    @Test
+    void writeNdjson_OneObjectPerLine() throws IOException {
+        userRepository.save(new User("first", "first@example.com", "encodedPassword"));
+        userRepository.save(new User("second", "second@example.com", "encodedPassword"));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = userExportService.writeNdjson(out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, rows);
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("{\"id\":") && lines[0].contains("\"username\":\"first\""));
+        assertTrue(lines[1].contains("\"username\":\"second\""));
+        assertFalse(lines[0].contains("password"));
+    }
+
+    @Test
+    void writeNdjson_SpansSeveralFetches_StreamsAllRowsInOrder() throws IOException {
+        // Two and a half fetch-size windows
+        insertUsers(2_500);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = userExportService.writeNdjson(out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2_500, rows);
+        assertEquals(2_500, lines.length);
+        assertTrue(lines[0].startsWith("{\"id\":1000000,\"username\":\"bulk0\""));
+        assertTrue(lines[2_499].startsWith("{\"id\":1002499,\"username\":\"bulk2499\""));
+    }
+
+    // Off by default; surefire reports the time. mvn test -Dtest=UserExportServiceTest -Dgroups=benchmark -DexcludedGroups=
+    @Test
+    @Tag("benchmark")
+    void writeNdjson_LargeTable_StreamsAllRows() throws IOException {
+        insertUsers(200_000);
+        CountingOutputStream out = new CountingOutputStream();
+
+        long rows = userExportService.writeNdjson(out);
+
+        assertEquals(200_000, rows);
+        assertTrue(out.count > 0);
+    }
+
+    private void insertUsers(int total) {
+        List<Object[]> batch = new ArrayList<>();
+        for (int i = 0; i < total; i++) {
+            batch.add(new Object[] {1_000_000L + i, "bulk" + i, "bulk" + i + "@example.com", "encodedPassword"});
+            if (batch.size() == 5_000) {
+                insert(batch);
+                batch.clear();
+            }
+        }
+        insert(batch);
+    }
+
+    private void insert(List<Object[]> batch) {
+        jdbcTemplate.batchUpdate(
+            "INSERT INTO users (id, username, email, password, active, created_at, token_version) " +
+            "VALUES (?, ?, ?, ?, false, CURRENT_TIMESTAMP, 0)", batch);
+    }
+
+    private static class CountingOutputStream extends OutputStream {
+        long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.chat.userservice.service;
+
+import com.chat.userservice.entity.User;
+import com.chat.userservice.repository.UserRepository;
+import com.chat.userservice.util.PasswordHashingRejectedException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+
+@SpringBootTest(properties = {"import.batch-size=100", "password-hashing.bcrypt.strength=4"})
+@ActiveProfiles("test")
+class UserImportServiceTest {
+
+    @Autowired
+    private UserImportService userImportService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @SpyBean
+    private PasswordEncoder passwordEncoder;
+
+    @SpyBean
+    private UsernameIndex usernameIndex;
+
+    @BeforeEach
+    @AfterEach
+    void cleanUp() {
+        userRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void registerUser_DuplicatesMappedFromConstraints() {
+        userService.registerUser("alice", "alice@example.com", "password123");
+
+        RuntimeException username = assertThrows(RuntimeException.class,
+            () -> userService.registerUser("alice", "other@example.com", "password123"));
+        RuntimeException email = assertThrows(RuntimeException.class,
+            () -> userService.registerUser("other", "alice@example.com", "password123"));
+        RuntimeException caseVariant = assertThrows(RuntimeException.class,
+            () -> userService.registerUser("Alice", "alice2@example.com", "password123"));
+
+        assertEquals("Username already exists", username.getMessage());
+        assertEquals("Email already exists", email.getMessage());
+        assertEquals("Username already exists", caseVariant.getMessage());
+        assertEquals(1, userRepository.count());
+    }
+
+    @Test
+    void importUsers_InsertsInBatchesAndSkipsExisting() {
+        userService.registerUser("user7", "user7@example.com", "password123");
+        List<Map<String, String>> rows = new ArrayList<>();
+        for (int i = 0; i < 250; i++) {
+            rows.add(Map.of("username", "user" + i, "email", "user" + i + "@example.com", "password", "pw" + i));
+        }
+        rows.add(Map.of("username", "user3", "email", "again@example.com", "password", "pw"));
+        rows.add(Map.of("username", "nopassword", "email", "nopassword@example.com"));
+
+        Map<String, Object> result = userImportService.importUsers(rows);
+
+        assertEquals(249, result.get("imported"));
+        assertEquals(3, ((List<?>) result.get("skipped")).size());
+        assertEquals(250, userRepository.count());
+        assertTrue(userService.authenticateUser("user42", "pw42").isPresent());
+    }
+
+    @Test
+    void importUsers_ResubmittingIsIdempotent() {
+        List<Map<String, String>> rows = List.of(
+            Map.of("username", "carol", "email", "carol@example.com", "password", "pw"),
+            Map.of("username", "dave", "email", "dave@example.com", "password", "pw"));
+
+        userImportService.importUsers(rows);
+        Map<String, Object> again = userImportService.importUsers(rows);
+
+        assertEquals(0, again.get("imported"));
+        assertEquals(2, userRepository.count());
+        User carol = userRepository.findByUsername("carol").orElseThrow();
+        assertNotNull(carol.getId());
+    }
+
+    @Test
+    void importUsers_DuplicatesCheckedIgnoringCase() {
+        userService.registerUser("alice", "alice@example.com", "password123");
+        List<Map<String, String>> rows = List.of(
+            Map.of("username", "Alice", "email", "alice2@example.com", "password", "pw"),
+            Map.of("username", "erin", "email", "ALICE@example.com", "password", "pw"),
+            Map.of("username", "Bob", "email", "bob@example.com", "password", "pw"),
+            Map.of("username", "bob", "email", "bob2@example.com", "password", "pw"));
+
+        Map<String, Object> result = userImportService.importUsers(rows);
+
+        assertEquals(1, result.get("imported"));
+        List<?> skipped = (List<?>) result.get("skipped");
+        assertEquals(List.of(
+            Map.of("username", "bob", "error", "Username already exists"),
+            Map.of("username", "Alice", "error", "Username already exists"),
+            Map.of("username", "erin", "error", "Email already exists")), skipped);
+        assertEquals(2, userRepository.count());
+    }
+
+    @Test
+    void importUsers_HashingRejected_ReportsRowsNotImported() {
+        doThrow(new PasswordHashingRejectedException("Too many concurrent logins, please retry"))
+            .when(passwordEncoder).encode("reject");
+        List<Map<String, String>> rows = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            rows.add(Map.of("username", "user" + i, "email", "user" + i + "@example.com",
+                "password", i == 150 ? "reject" : "pw" + i));
+        }
+
+        Map<String, Object> result = userImportService.importUsers(rows);
+
+        assertEquals(100, result.get("imported"));
+        List<?> skipped = (List<?>) result.get("skipped");
+        assertEquals(200, skipped.size());
+        assertTrue(skipped.contains(Map.of("username", "user150", "error", "Password hashing is saturated, please resubmit")));
+        assertTrue(skipped.contains(Map.of("username", "user299", "error", "Password hashing is saturated, please resubmit")));
+        assertEquals(100, userRepository.count());
+    }
+
+    @Test
+    void importUsers_FailureAfterCommitDoesNotReinsertChunk() {
+        doThrow(new IllegalStateException("index unavailable")).when(usernameIndex).add(any(), any());
+        List<Map<String, String>> rows = List.of(
+            Map.of("username", "carol", "email", "carol@example.com", "password", "pw"),
+            Map.of("username", "dave", "email", "dave@example.com", "password", "pw"));
+
+        assertThrows(IllegalStateException.class, () -> userImportService.importUsers(rows));
+
+        assertEquals(2, userRepository.count());
+    }
+}
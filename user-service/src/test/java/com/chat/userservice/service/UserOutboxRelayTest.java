@@ -0,0 +1,118 @@
+package com.chat.userservice.service;
+
+import com.chat.userservice.dto.UserChangeEvent;
+import com.chat.userservice.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest(properties = "activity.flush-interval-ms=3600000")
+@ActiveProfiles("test")
+class UserOutboxRelayTest {
+
+    @Autowired
+    private UserOutboxRelay relay;
+
+    @SpyBean
+    private InMemoryUserEventTransport transport;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserActivityBuffer activityBuffer;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        activityBuffer.flush();
+        userRepository.deleteAllInBatch();
+        jdbcTemplate.update("DELETE FROM user_outbox");
+        // Every test context's relay runs once at startup and takes the lease in the shared DB
+        jdbcTemplate.update("UPDATE user_outbox_relay_lease SET owner = '', expires_at = TIMESTAMP '1970-01-01 00:00:00'");
+        transport.clear();
+    }
+
+    @Test
+    void relay_PublishesCommittedChangesInOrder() {
+        Long id = userService.registerUser("alice", "alice@example.com", "password123").getId();
+        userService.updatePassword("alice", "newPassword123");
+        userService.updateUserActivity("alice", true);
+        activityBuffer.flush();
+
+        relay.relay();
+
+        List<OutboxMessage> published = transport.getPublished();
+        assertEquals(List.of(UserChangeEvent.REGISTERED, UserChangeEvent.PASSWORD_CHANGED, UserChangeEvent.ACTIVITY_CHANGED),
+            published.stream().map(OutboxMessage::getType).toList());
+        assertTrue(published.stream().allMatch(message -> message.getKey().equals(id.toString())));
+        assertTrue(published.get(2).getPayload().contains("\"active\":true"));
+        assertEquals(0, outboxSize());
+    }
+
+    @Test
+    void relay_RolledBackRegistrationLeavesNoEvent() {
+        userService.registerUser("alice", "alice@example.com", "password123");
+        assertThrows(RuntimeException.class,
+            () -> userService.registerUser("alice", "other@example.com", "password123"));
+
+        assertEquals(1, outboxSize());
+    }
+
+    @Test
+    void relay_KeepsEventsWhenTransportFails() throws Exception {
+        userService.registerUser("alice", "alice@example.com", "password123");
+        long failuresBefore = relay.getFailures();
+        doThrow(new IllegalStateException("broker down")).when(transport).publish(anyList());
+
+        relay.relay();
+
+        assertEquals(1, outboxSize());
+        assertEquals(failuresBefore + 1, relay.getFailures());
+
+        doCallRealMethod().when(transport).publish(anyList());
+        relay.relay();
+
+        assertEquals(1, transport.getPublished().size());
+        assertEquals(0, outboxSize());
+    }
+
+    @Test
+    void relay_StandsByWhileAnotherReplicaHoldsTheLease() {
+        userService.registerUser("alice", "alice@example.com", "password123");
+        jdbcTemplate.update("UPDATE user_outbox_relay_lease SET owner = 'other', expires_at = ?",
+            new Timestamp(System.currentTimeMillis() + 60_000));
+
+        relay.relay();
+
+        assertEquals(1, outboxSize());
+        assertTrue(transport.getPublished().isEmpty());
+
+        jdbcTemplate.update("UPDATE user_outbox_relay_lease SET expires_at = ?",
+            new Timestamp(System.currentTimeMillis() - 1));
+        relay.relay();
+
+        assertEquals(1, transport.getPublished().size());
+        assertEquals(0, outboxSize());
+    }
+
+    private int outboxSize() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM user_outbox", Integer.class);
+    }
+}
@@ -1,18 +1,33 @@
 package com.chat.userservice.service;
 
+import com.chat.userservice.dto.UserBrief;
+import com.chat.userservice.dto.UserChangeEvent;
 import com.chat.userservice.entity.User;
 import com.chat.userservice.repository.UserRepository;
+import com.chat.userservice.util.JwtUtil;
+import com.chat.userservice.util.VerifiedTokenCache;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.sql.SQLException;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -27,6 +42,36 @@ class UserServiceTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private JwtUtil jwtUtil;
+
+    @Mock
+    private UserCounters userCounters;
+
+    @Mock
+    private UserActivityBuffer activityBuffer;
+
+    @Spy
+    private UserBriefCache userBriefCache = new UserBriefCache(100, 60_000);
+
+    @Mock
+    private UserOutbox userOutbox;
+
+    @Mock
+    private InvalidationBus invalidationBus;
+
+    @Mock
+    private UsernameIndex usernameIndex;
+
+    @Mock
+    private UserVersion userVersion;
+
+    @Spy
+    private TokenVersionCache tokenVersions = new TokenVersionCache(100, 60_000);
+
+    @Spy
+    private TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+
     @InjectMocks
     private UserService userService;
 
@@ -40,34 +85,46 @@ class UserServiceTest {
 
     @Test
     void registerUser_Success() {
-        when(userRepository.findByUsername(anyString())).thenReturn(Optional.empty());
-        when(userRepository.findByEmail(anyString())).thenReturn(Optional.empty());
         when(passwordEncoder.encode(anyString())).thenReturn("encodedPassword");
-        when(userRepository.save(any(User.class))).thenReturn(testUser);
+        when(userRepository.saveAndFlush(any(User.class))).thenReturn(testUser);
 
         User result = userService.registerUser("testuser", "test@example.com", "password123");
 
         assertNotNull(result);
         assertEquals("testuser", result.getUsername());
         assertEquals("test@example.com", result.getEmail());
-        verify(userRepository).save(any(User.class));
+        verify(userRepository).saveAndFlush(any(User.class));
+        verify(userRepository, never()).findByUsername(anyString());
+        verify(userRepository, never()).findByEmail(anyString());
+        verify(userCounters).userRegistered();
+        verify(userOutbox).append(argThat(event -> UserChangeEvent.REGISTERED.equals(event.getType())));
+        verify(usernameIndex).add(1L, "testuser");
     }
 
     @Test
     void registerUser_UsernameExists() {
-        when(userRepository.findByUsername(anyString())).thenReturn(Optional.of(testUser));
+        when(passwordEncoder.encode(anyString())).thenReturn("encodedPassword");
+        when(userRepository.saveAndFlush(any(User.class))).thenThrow(duplicate(User.USERNAME_CONSTRAINT));
 
-        assertThrows(RuntimeException.class, () -> 
+        RuntimeException e = assertThrows(RuntimeException.class, () -> 
             userService.registerUser("testuser", "test@example.com", "password123"));
+        assertEquals("Username already exists", e.getMessage());
+        verify(userCounters, never()).userRegistered();
     }
 
     @Test
     void registerUser_EmailExists() {
-        when(userRepository.findByUsername(anyString())).thenReturn(Optional.empty());
-        when(userRepository.findByEmail(anyString())).thenReturn(Optional.of(testUser));
+        when(passwordEncoder.encode(anyString())).thenReturn("encodedPassword");
+        when(userRepository.saveAndFlush(any(User.class))).thenThrow(duplicate(User.EMAIL_CONSTRAINT));
 
-        assertThrows(RuntimeException.class, () -> 
+        RuntimeException e = assertThrows(RuntimeException.class, () -> 
             userService.registerUser("newuser", "test@example.com", "password123"));
+        assertEquals("Email already exists", e.getMessage());
+    }
+
+    private static DataIntegrityViolationException duplicate(String constraint) {
+        return new DataIntegrityViolationException("could not execute statement",
+            new ConstraintViolationException("duplicate key", new SQLException("duplicate key"), constraint));
     }
 
     @Test
@@ -81,6 +138,34 @@ class UserServiceTest {
         assertEquals("testuser", result.get().getUsername());
     }
 
+    @Test
+    void authenticateUser_OutdatedHash_Rehashed() {
+        when(userRepository.findByUsername(anyString())).thenReturn(Optional.of(testUser));
+        when(passwordEncoder.matches(anyString(), anyString())).thenReturn(true);
+        when(passwordEncoder.upgradeEncoding("encodedPassword")).thenReturn(true);
+        when(passwordEncoder.encode("password123")).thenReturn("{bcrypt}rehashed");
+        when(userRepository.replacePasswordHash(1L, "encodedPassword", "{bcrypt}rehashed")).thenReturn(1);
+
+        Optional<User> result = userService.authenticateUser("testuser", "password123");
+
+        assertTrue(result.isPresent());
+        assertEquals("encodedPassword", testUser.getPassword());
+        verify(userRepository).replacePasswordHash(1L, "encodedPassword", "{bcrypt}rehashed");
+        verify(userRepository, never()).save(any(User.class));
+    }
+
+    @Test
+    void authenticateUser_CurrentHash_NotRehashed() {
+        when(userRepository.findByUsername(anyString())).thenReturn(Optional.of(testUser));
+        when(passwordEncoder.matches(anyString(), anyString())).thenReturn(true);
+        when(passwordEncoder.upgradeEncoding(anyString())).thenReturn(false);
+
+        userService.authenticateUser("testuser", "password123");
+
+        verify(passwordEncoder, never()).encode(anyString());
+        verify(userRepository, never()).replacePasswordHash(any(), any(), any());
+    }
+
     @Test
     void authenticateUser_InvalidPassword() {
         when(userRepository.findByUsername(anyString())).thenReturn(Optional.of(testUser));
@@ -113,7 +198,7 @@ class UserServiceTest {
 
     @Test
     void getTotalUsers_Success() {
-        when(userRepository.count()).thenReturn(5L);
+        when(userCounters.getTotalUsers()).thenReturn(5L);
 
         long result = userService.getTotalUsers();
 
@@ -122,13 +207,21 @@ class UserServiceTest {
 
     @Test
     void getActiveUsers_Success() {
-        when(userRepository.countActiveUsers()).thenReturn(3L);
+        when(userCounters.getActiveUsers()).thenReturn(3L);
 
         long result = userService.getActiveUsers();
 
         assertEquals(3L, result);
     }
 
+    @Test
+    void updateUserActivity_BufferedWithoutQueries() {
+        userService.updateUserActivity("testuser", true);
+
+        verify(activityBuffer).record("testuser", true);
+        verifyNoInteractions(userRepository);
+    }
+
     @Test
     void getUserByUsername_Success() {
         when(userRepository.findByUsername(anyString())).thenReturn(Optional.of(testUser));
@@ -144,12 +237,17 @@ class UserServiceTest {
         when(userRepository.findByUsername(anyString())).thenReturn(Optional.of(testUser));
         when(passwordEncoder.encode(anyString())).thenReturn("newEncodedPassword");
         when(userRepository.save(any(User.class))).thenReturn(testUser);
+        when(jwtUtil.getTokenCache()).thenReturn(new VerifiedTokenCache(10));
 
         boolean result = userService.updatePassword("testuser", "newPassword");
 
         assertTrue(result);
         verify(userRepository).save(any(User.class));
         verify(userRepository).flush();
+        verify(userOutbox).append(argThat(event -> UserChangeEvent.PASSWORD_CHANGED.equals(event.getType())));
+        verify(invalidationBus).broadcast(InvalidationBus.USERS, "testuser");
+        verify(invalidationBus).broadcast(InvalidationBus.TOKENS, "testuser");
+        verify(invalidationBus).broadcast(InvalidationBus.TOKEN_VERSIONS, "1");
     }
 
     @Test
@@ -160,4 +258,109 @@ class UserServiceTest {
 
         assertFalse(result);
     }
+
+    @Test
+    void isTokenVersionCurrent_KnownAfterLogin_SkipsDatabase() {
+        when(userRepository.findByUsername(anyString())).thenReturn(Optional.of(testUser));
+        when(passwordEncoder.matches(anyString(), anyString())).thenReturn(true);
+        userService.authenticateUser("testuser", "password123");
+
+        boolean result = userService.isTokenVersionCurrent(1L, 0);
+
+        assertTrue(result);
+        verify(userRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void isTokenVersionCurrent_Unknown_LoadsOnce() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+
+        assertTrue(userService.isTokenVersionCurrent(1L, 0));
+        assertTrue(userService.isTokenVersionCurrent(1L, 0));
+
+        verify(userRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void isTokenVersionCurrent_StaleVersion() {
+        testUser.setTokenVersion(2);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+
+        boolean result = userService.isTokenVersionCurrent(1L, 1);
+
+        assertFalse(result);
+    }
+
+    @Test
+    void revokeAllTokens_LoginThatReadTheOldRowCannotRestoreIt() {
+        when(userRepository.findByUsername(anyString())).thenReturn(Optional.of(testUser));
+        when(jwtUtil.getTokenCache()).thenReturn(new VerifiedTokenCache(10));
+
+        assertTrue(userService.revokeAllTokens("testuser"));
+        // A concurrent lookup that loaded the row before the bump committed
+        tokenVersions.update(1L, 0);
+
+        assertFalse(userService.isTokenVersionCurrent(1L, 0));
+        assertTrue(userService.isTokenVersionCurrent(1L, 1));
+        verify(userRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void isTokenVersionCurrent_UserNotFound() {
+        when(userRepository.findById(anyLong())).thenReturn(Optional.empty());
+
+        boolean result = userService.isTokenVersionCurrent(99L, 0);
+
+        assertFalse(result);
+    }
+
+    @Test
+    void validateTokens_GroupsLookupsIntoOneQuery() {
+        Claims enriched = Jwts.claims().setSubject("testuser");
+        enriched.put(JwtUtil.USER_ID_CLAIM, 1L);
+        enriched.put(JwtUtil.TOKEN_VERSION_CLAIM, 0);
+        Claims legacy = Jwts.claims().setSubject("legacyuser");
+        User legacyUser = new User("legacyuser", "legacy@example.com", "encodedPassword");
+        legacyUser.setId(2L);
+        when(jwtUtil.parseToken("enriched")).thenReturn(enriched);
+        when(jwtUtil.parseToken("legacy")).thenReturn(legacy);
+        when(jwtUtil.parseToken("bad")).thenThrow(new JwtException("bad signature"));
+        when(userRepository.findByIdInOrUsernameIn(anyCollection(), anyCollection()))
+                .thenReturn(Arrays.asList(testUser, legacyUser));
+
+        List<Map<String, Object>> results = userService.validateTokens(Arrays.asList("enriched", "legacy", "bad"));
+
+        assertEquals(3, results.size());
+        assertEquals(true, results.get(0).get("valid"));
+        assertEquals(1L, results.get(0).get("userId"));
+        assertEquals(true, results.get(1).get("valid"));
+        assertEquals(2L, results.get(1).get("userId"));
+        assertEquals(false, results.get(2).get("valid"));
+        verify(userRepository, times(1)).findByIdInOrUsernameIn(anyCollection(), anyCollection());
+        verify(userRepository, never()).findByUsername(anyString());
+    }
+
+    @Test
+    void lookupUsers_MissesGoToOneQuery() {
+        when(userRepository.findBriefsByIdInOrUsernameIn(Set.of(1L, 2L), Set.of("carol")))
+                .thenReturn(List.of(new UserBrief(1L, "alice", true, null),
+                                    new UserBrief(2L, "bob", false, null),
+                                    new UserBrief(3L, "carol", false, null)));
+
+        List<UserBrief> result = userService.lookupUsers(List.of(1L, 2L), List.of("carol"));
+
+        assertEquals(3, result.size());
+        verify(userRepository, times(1)).findBriefsByIdInOrUsernameIn(any(), any());
+    }
+
+    @Test
+    void lookupUsers_CachedUsersSkipDatabase() {
+        userBriefCache.put(new UserBrief(1L, "alice", true, null));
+        userBriefCache.put(new UserBrief(2L, "bob", false, null));
+
+        List<UserBrief> result = userService.lookupUsers(List.of(1L), List.of("bob", "alice"));
+
+        assertEquals(List.of("alice", "bob"), result.stream().map(UserBrief::getUsername).toList());
+        verify(userRepository, never()).findBriefsByIdInOrUsernameIn(any(), any());
+    }
 }
@@ -0,0 +1,71 @@
+package com.chat.userservice.service;
+
+import com.chat.userservice.dto.UserMatch;
+import com.chat.userservice.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UsernameIndexTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @InjectMocks
+    private UsernameIndex usernameIndex;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(usernameIndex, "mergeThreshold", 3);
+        ReflectionTestUtils.setField(usernameIndex, "warmPageSize", 2);
+    }
+
+    @Test
+    void rebuild_PagesThroughRepository() {
+        when(userRepository.findIdsAndUsernamesAfter(eq(0L), any(Pageable.class)))
+            .thenReturn(List.of(new Object[] {1L, "carol"}, new Object[] {2L, "Alice"}));
+        when(userRepository.findIdsAndUsernamesAfter(eq(2L), any(Pageable.class)))
+            .thenReturn(List.<Object[]>of(new Object[] {5L, "alina"}));
+
+        usernameIndex.rebuild();
+
+        assertEquals(3, usernameIndex.size());
+        assertEquals(List.of("Alice", "alina"), names(usernameIndex.search("AL", 10)));
+        assertEquals(5L, usernameIndex.search("alin", 10).get(0).getId());
+    }
+
+    @Test
+    void search_MergesRegistrationsAndHonoursLimit() {
+        usernameIndex.add(1L, "bob");
+        usernameIndex.add(2L, "bobby");
+        assertEquals(List.of("bob", "bobby"), names(usernameIndex.search("bo", 10)));
+
+        // Third registration reaches the merge threshold and folds into the array
+        usernameIndex.add(3L, "Bobcat");
+        usernameIndex.add(4L, "boa");
+        usernameIndex.add(5L, "carl");
+
+        assertEquals(List.of("boa", "bob", "bobby", "Bobcat"), names(usernameIndex.search("bo", 10)));
+        assertEquals(List.of("boa", "bob"), names(usernameIndex.search("BO", 2)));
+        assertEquals(List.of("bob", "bobby", "Bobcat"), names(usernameIndex.search("bob", 10)));
+        assertTrue(usernameIndex.search("z", 10).isEmpty());
+        assertEquals(5, usernameIndex.size());
+    }
+
+    private static List<String> names(List<UserMatch> matches) {
+        return matches.stream().map(UserMatch::getUsername).toList();
+    }
+}
@@ -0,0 +1,99 @@
+package com.chat.userservice.util;
+
+import com.chat.userservice.util.AdaptiveConcurrencyLimiter.Priority;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private AdaptiveConcurrencyLimiter limiter(int initial) {
+        return new AdaptiveConcurrencyLimiter(initial, 2, 100, 2.0, 0.5, 5, 100, 0.8, 0.5);
+    }
+
+    @Test
+    void tryAcquire_LowPriorityShedFirst() {
+        AdaptiveConcurrencyLimiter limiter = limiter(10);
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(limiter.tryAcquire(Priority.LOW));
+        }
+        assertFalse(limiter.tryAcquire(Priority.LOW));
+        assertTrue(limiter.tryAcquire(Priority.MEDIUM));
+        assertTrue(limiter.tryAcquire(Priority.MEDIUM));
+        assertTrue(limiter.tryAcquire(Priority.MEDIUM));
+        assertFalse(limiter.tryAcquire(Priority.MEDIUM));
+        assertTrue(limiter.tryAcquire(Priority.HIGH));
+        assertTrue(limiter.tryAcquire(Priority.HIGH));
+        assertFalse(limiter.tryAcquire(Priority.HIGH));
+    }
+
+    @Test
+    void release_SustainedSlowdownShrinksLimit() {
+        AdaptiveConcurrencyLimiter limiter = limiter(40);
+        complete(limiter, "GET /a", 1_000_000, 20);
+
+        complete(limiter, "GET /a", 10_000_000, 10);
+
+        assertEquals(10, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void release_SingleSlowCallBacksOffOnce() {
+        AdaptiveConcurrencyLimiter limiter = limiter(40);
+        complete(limiter, "GET /a", 1_000_000, 20);
+
+        complete(limiter, "GET /a", 100_000_000, 1);
+        assertEquals(20, limiter.getLimit());
+
+        // The outlier lingers in the short average without shrinking the limit again
+        complete(limiter, "GET /a", 1_000_000, 10);
+        assertTrue(limiter.getLimit() >= 20);
+    }
+
+    @Test
+    void release_FastCompletionsUnderLoadGrowLimit() {
+        AdaptiveConcurrencyLimiter limiter = limiter(4);
+        for (int i = 0; i < 4; i++) {
+            limiter.tryAcquire(Priority.HIGH);
+        }
+
+        limiter.release("GET /a", 1_000_000);
+        limiter.release("GET /a", 1_000_000);
+
+        assertEquals(6, limiter.getLimit());
+    }
+
+    @Test
+    void release_MixedEndpointsInOneClassKeepTheLimit() {
+        AdaptiveConcurrencyLimiter limiter = limiter(40);
+
+        // Cache hits and database misses share a priority but each has its own baseline
+        for (int i = 0; i < 200; i++) {
+            complete(limiter, "GET /validate", i % 3 == 0 ? 20_000_000 : 100_000, 1);
+            complete(limiter, "POST /validate/batch", 50_000_000, 1);
+        }
+
+        assertEquals(40, limiter.getLimit());
+    }
+
+    @Test
+    void release_IdleLimiterRecoversToInitialLimit() {
+        AdaptiveConcurrencyLimiter limiter = limiter(40);
+        complete(limiter, "GET /a", 1_000_000, 20);
+        complete(limiter, "GET /a", 10_000_000, 10);
+        assertTrue(limiter.getLimit() < 40);
+
+        complete(limiter, "GET /b", 1_000_000, 100);
+
+        assertEquals(40, limiter.getLimit());
+    }
+
+    private static void complete(AdaptiveConcurrencyLimiter limiter, String endpoint, long latencyNanos, int times) {
+        for (int i = 0; i < times; i++) {
+            limiter.tryAcquire(Priority.HIGH);
+            limiter.release(endpoint, latencyNanos);
+        }
+    }
+}
@@ -1,9 +1,21 @@
 package com.chat.userservice.util;
 
+import com.chat.userservice.config.JwtSigningProperties;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -14,6 +26,9 @@ class JwtUtilTest {
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Value("${jwt.secret}")
+    private String secret;
+
     @Test
     void generateToken_Success() {
         String username = "testuser";
@@ -34,6 +49,17 @@ class JwtUtilTest {
         assertEquals(username, extractedUsername);
     }
 
+    @Test
+    void generateToken_WithUserClaims() {
+        String token = jwtUtil.generateToken("testuser", 42L, 3);
+
+        Claims claims = jwtUtil.parseToken(token);
+
+        assertEquals("testuser", claims.getSubject());
+        assertEquals(42L, claims.get(JwtUtil.USER_ID_CLAIM, Long.class));
+        assertEquals(3, claims.get(JwtUtil.TOKEN_VERSION_CLAIM, Integer.class));
+    }
+
     @Test
     void isTokenValid_ValidToken() {
         String username = "testuser";
@@ -60,10 +86,119 @@ class JwtUtilTest {
         assertFalse(isValid);
     }
 
+    @Test
+    void parseToken_NullToken_ThrowsJwtException() {
+        assertThrows(JwtException.class, () -> jwtUtil.parseToken(null));
+    }
+
     @Test
     void isTokenValid_EmptyToken() {
         boolean isValid = jwtUtil.isTokenValid("");
         
         assertFalse(isValid);
     }
+
+    @Test
+    void extractUsername_RepeatedToken_ServedFromCache() {
+        String token = jwtUtil.generateToken("cacheduser");
+        long hitsBefore = jwtUtil.getTokenCache().getHits();
+
+        jwtUtil.extractUsername(token);
+        jwtUtil.extractUsername(token);
+        boolean isValid = jwtUtil.isTokenValid(token);
+
+        assertTrue(isValid);
+        assertEquals(hitsBefore + 2, jwtUtil.getTokenCache().getHits());
+    }
+
+    @Test
+    void isTokenValid_InvalidToken_NotCached() {
+        int sizeBefore = jwtUtil.getTokenCache().size();
+
+        jwtUtil.isTokenValid("invalid.token.here");
+        jwtUtil.isTokenValid("invalid.token.here");
+
+        assertEquals(sizeBefore, jwtUtil.getTokenCache().size());
+    }
+
+    @Test
+    void generateToken_SignedWithActiveKid() {
+        String token = jwtUtil.generateToken("testuser");
+
+        String header = new String(Base64.getUrlDecoder().decode(token.split("\\.")[0]));
+        String kid = (String) jwtUtil.getJwks().get(0).get("kid");
+
+        assertTrue(header.contains("\"alg\":\"ES256\""));
+        assertTrue(header.contains("\"kid\":\"" + kid + "\""));
+    }
+
+    @Test
+    void isTokenValid_KidlessHmacTokenRejectedWithoutSwitchTime() {
+        String legacy = hmacToken(secret, System.currentTimeMillis() - 60_000, System.currentTimeMillis() + 60_000);
+
+        assertFalse(jwtUtil.isTokenValid(legacy));
+    }
+
+    @Test
+    void isTokenValid_KidlessHmacTokenOnlyFromBeforeTheSwitch() {
+        long now = System.currentTimeMillis();
+        JwtUtil switched = es256Switched(Instant.ofEpochMilli(now));
+
+        assertTrue(switched.isTokenValid(hmacToken(SECRET, now - 60_000, now + 60_000)));
+        assertFalse(switched.isTokenValid(hmacToken(SECRET, now + 1_000, now + 60_000)));
+        // Backdated by someone holding the secret, but meant to outlive the last legacy token
+        assertFalse(switched.isTokenValid(hmacToken(SECRET, now - 60_000, now + 10 * HOUR)));
+    }
+
+    @Test
+    void init_Es256WithoutKeysFailsFast() {
+        JwtSigningProperties signing = new JwtSigningProperties();
+        signing.setAlgorithm("ES256");
+
+        assertThrows(IllegalStateException.class, () -> standalone(signing).init());
+    }
+
+    @Test
+    void getJwks_PublishesEcPublicKey() {
+        Map<String, Object> jwk = jwtUtil.getJwks().get(0);
+
+        assertEquals("EC", jwk.get("kty"));
+        assertEquals("P-256", jwk.get("crv"));
+        assertEquals(43, ((String) jwk.get("x")).length());
+        assertEquals(43, ((String) jwk.get("y")).length());
+        assertFalse(jwk.containsKey("d"));
+    }
+
+    private static final String SECRET = "standaloneSecret123456789012345678901234567890";
+    private static final long HOUR = 3_600_000L;
+
+    private static String hmacToken(String secret, long issuedAt, long expiresAt) {
+        return Jwts.builder()
+                .setSubject("testuser")
+                .setIssuedAt(new Date(issuedAt))
+                .setExpiration(new Date(expiresAt))
+                .signWith(Keys.hmacShaKeyFor(secret.getBytes()))
+                .compact();
+    }
+
+    private static JwtUtil es256Switched(Instant switchedAt) {
+        JwtSigningProperties signing = new JwtSigningProperties();
+        signing.setAlgorithm("ES256");
+        signing.setGenerateEphemeralKey(true);
+        signing.setLegacyHmacUntil(switchedAt);
+        JwtUtil util = standalone(signing);
+        util.init();
+        return util;
+    }
+
+    private static JwtUtil standalone(JwtSigningProperties signing) {
+        JwtUtil util = new JwtUtil();
+        ReflectionTestUtils.setField(util, "secret", SECRET);
+        ReflectionTestUtils.setField(util, "expiration", HOUR);
+        ReflectionTestUtils.setField(util, "cacheMaxSize", 100);
+        ReflectionTestUtils.setField(util, "revocationBucketMs", HOUR);
+        ReflectionTestUtils.setField(util, "revocationBloomBits", 1 << 12);
+        ReflectionTestUtils.setField(util, "signingProperties", signing);
+        return util;
+    }
 }
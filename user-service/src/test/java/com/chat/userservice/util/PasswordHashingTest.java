@@ -0,0 +1,64 @@
+package com.chat.userservice.util;
+
+import com.chat.userservice.config.PasswordHashCalibrator;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHashingTest {
+
+    @Test
+    void createEncoder_LegacyBcryptHashMatchesAndNeedsUpgrade() {
+        String legacy = new BCryptPasswordEncoder(4).encode("secret");
+        PasswordEncoder encoder = PasswordHashing.createEncoder(PasswordHashing.BCRYPT, 4, 1024, 1);
+
+        assertTrue(encoder.matches("secret", legacy));
+        assertTrue(encoder.upgradeEncoding(legacy));
+    }
+
+    @Test
+    void createEncoder_LowerBcryptStrengthNeedsUpgrade() {
+        String weak = PasswordHashing.createEncoder(PasswordHashing.BCRYPT, 4, 1024, 1).encode("secret");
+        PasswordEncoder stronger = PasswordHashing.createEncoder(PasswordHashing.BCRYPT, 5, 1024, 1);
+        PasswordEncoder same = PasswordHashing.createEncoder(PasswordHashing.BCRYPT, 4, 1024, 1);
+
+        assertTrue(weak.startsWith("{bcrypt}"));
+        assertTrue(stronger.matches("secret", weak));
+        assertTrue(stronger.upgradeEncoding(weak));
+        assertFalse(same.upgradeEncoding(weak));
+    }
+
+    @Test
+    void createEncoder_Argon2() {
+        PasswordEncoder argon2 = PasswordHashing.createEncoder(PasswordHashing.ARGON2, 4, 1024, 1);
+        String bcryptHash = PasswordHashing.createEncoder(PasswordHashing.BCRYPT, 4, 1024, 1).encode("secret");
+
+        String hash = argon2.encode("secret");
+
+        assertTrue(hash.startsWith("{argon2}"));
+        assertTrue(argon2.matches("secret", hash));
+        assertFalse(argon2.upgradeEncoding(hash));
+        assertTrue(argon2.matches("secret", bcryptHash));
+        assertTrue(argon2.upgradeEncoding(bcryptHash));
+    }
+
+    @Test
+    void calibrate_StopsAfterTargetAndSuggestsClosestCost() {
+        PasswordHashCalibrator calibrator = new PasswordHashCalibrator();
+
+        Map<Integer, Long> timings = calibrator.calibrate(PasswordHashing::bcrypt, 4, 8, 0);
+
+        assertEquals(4, timings.keySet().iterator().next());
+        assertTrue(timings.size() <= 5);
+        Map<Integer, Long> measured = new LinkedHashMap<>();
+        measured.put(8, 20L);
+        measured.put(9, 45L);
+        measured.put(10, 95L);
+        assertEquals(9, calibrator.suggest(measured, 50));
+    }
+}
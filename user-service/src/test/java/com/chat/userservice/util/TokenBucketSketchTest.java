@@ -0,0 +1,63 @@
+package com.chat.userservice.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketSketchTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000L);
+
+    @Test
+    void tryAcquire_AllowsCapacityThenRejects() {
+        TokenBucketSketch buckets = new TokenBucketSketch(3, 60, 2, 1024, now::get);
+
+        assertTrue(buckets.tryAcquire("alice"));
+        assertTrue(buckets.tryAcquire("alice"));
+        assertTrue(buckets.tryAcquire("alice"));
+        assertFalse(buckets.tryAcquire("alice"));
+        assertTrue(buckets.tryAcquire("bob"));
+    }
+
+    @Test
+    void tryAcquire_RefillsOverTime() {
+        TokenBucketSketch buckets = new TokenBucketSketch(1, 60, 2, 1024, now::get);
+
+        assertTrue(buckets.tryAcquire("alice"));
+        assertFalse(buckets.tryAcquire("alice"));
+        now.addAndGet(500);
+        assertFalse(buckets.tryAcquire("alice"));
+        now.addAndGet(500);
+        assertTrue(buckets.tryAcquire("alice"));
+    }
+
+    @Test
+    void tryAcquire_RefillCappedAtCapacity() {
+        TokenBucketSketch buckets = new TokenBucketSketch(2, 60, 2, 1024, now::get);
+        assertTrue(buckets.tryAcquire("alice"));
+
+        now.addAndGet(3_600_000L);
+
+        assertTrue(buckets.tryAcquire("alice"));
+        assertTrue(buckets.tryAcquire("alice"));
+        assertFalse(buckets.tryAcquire("alice"));
+    }
+
+    @Test
+    void tryAcquire_ManyKeysInFixedMemory() {
+        TokenBucketSketch buckets = new TokenBucketSketch(5, 5, 4, 1 << 18, now::get);
+        int allowed = 0;
+
+        for (int i = 0; i < 1_000_000; i++) {
+            if (buckets.tryAcquire("user" + i)) {
+                allowed++;
+            }
+        }
+
+        // A first attempt is only refused when all four of its cells are already drained by other keys
+        assertTrue(allowed > 950_000, "allowed " + allowed);
+        assertEquals(1, buckets.retryAfterSeconds() / 12);
+    }
+}
@@ -0,0 +1,62 @@
+package com.chat.userservice.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenDenylistTest {
+
+    private static final long HOUR = 3_600_000L;
+
+    @Test
+    void isRevoked_OnlyMatchesRevokedKeyInItsBucket() {
+        TokenDenylist denylist = new TokenDenylist(HOUR, 1 << 12);
+        long expiresAt = System.currentTimeMillis() + 2 * HOUR;
+
+        assertTrue(denylist.revoke("token-a", expiresAt));
+        assertFalse(denylist.revoke("token-a", expiresAt));
+
+        assertTrue(denylist.isRevoked("token-a", expiresAt));
+        assertFalse(denylist.isRevoked("token-b", expiresAt));
+        assertFalse(denylist.isRevoked("token-a", expiresAt + 2 * HOUR));
+        assertEquals(1, denylist.size());
+    }
+
+    @Test
+    void revoke_IgnoresAlreadyExpiredTokens() {
+        TokenDenylist denylist = new TokenDenylist(HOUR, 1 << 12);
+
+        assertFalse(denylist.revoke("token-a", System.currentTimeMillis() - 1));
+
+        assertEquals(0, denylist.getBucketCount());
+    }
+
+    @Test
+    void dropExpired_RemovesWholeBucketsPastTheirLastExpiry() throws InterruptedException {
+        TokenDenylist denylist = new TokenDenylist(50, 1 << 12);
+        long soon = System.currentTimeMillis() + 10;
+        long later = System.currentTimeMillis() + 10 * HOUR;
+        denylist.revoke("short-lived", soon);
+        denylist.revoke("long-lived", later);
+
+        Thread.sleep(120);
+        denylist.dropExpired();
+
+        assertEquals(1, denylist.getBucketCount());
+        assertTrue(denylist.isRevoked("long-lived", later));
+    }
+
+    @Test
+    void isRevoked_HasNoFalseNegativesUnderLoad() {
+        TokenDenylist denylist = new TokenDenylist(HOUR, 1 << 10);
+        long expiresAt = System.currentTimeMillis() + HOUR;
+        for (int i = 0; i < 5_000; i++) {
+            denylist.revoke("token-" + i, expiresAt);
+        }
+
+        for (int i = 0; i < 5_000; i++) {
+            assertTrue(denylist.isRevoked("token-" + i, expiresAt));
+        }
+        assertFalse(denylist.isRevoked("token-5000", expiresAt));
+    }
+}
@@ -0,0 +1,83 @@
+package com.chat.userservice.util;
+
+import com.chat.userservice.config.JwtSigningProperties;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hot path of /validate: a token already in the verified-token cache.
+ * {@code cacheHitOnly} is the lookup as it was before revocation;
+ * {@code parseToken} adds the denylist check, with an empty denylist and
+ * with the token's bucket holding 100k revocations.
+ *
+ * <pre>
+ * mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt -Dmdep.includeScope=test
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) com.chat.userservice.util.TokenValidationBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenValidationBenchmark {
+
+    @Param({"0", "100000"})
+    private int revokedTokens;
+
+    private JwtUtil jwtUtil;
+    private VerifiedTokenCache tokenCache;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        JwtSigningProperties signing = new JwtSigningProperties();
+        signing.setAlgorithm("HS256");
+        jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", "benchmarkSecret123456789012345678901234567890");
+        ReflectionTestUtils.setField(jwtUtil, "expiration", 86_400_000L);
+        ReflectionTestUtils.setField(jwtUtil, "cacheMaxSize", 10_000);
+        ReflectionTestUtils.setField(jwtUtil, "revocationBucketMs", 3_600_000L);
+        ReflectionTestUtils.setField(jwtUtil, "revocationBloomBits", 1 << 20);
+        ReflectionTestUtils.setField(jwtUtil, "signingProperties", signing);
+        jwtUtil.init();
+
+        token = jwtUtil.generateToken("benchmark", 1L, 0);
+        long expiresAt = jwtUtil.parseToken(token).getExpiration().getTime();
+        for (int i = 0; i < revokedTokens; i++) {
+            jwtUtil.getDenylist().revoke(VerifiedTokenCache.digest(token + i), expiresAt);
+        }
+        tokenCache = jwtUtil.getTokenCache();
+    }
+
+    @Benchmark
+    public Claims cacheHitOnly() {
+        return tokenCache.get(token);
+    }
+
+    @Benchmark
+    public Claims parseToken() {
+        return jwtUtil.parseToken(token);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(TokenValidationBenchmark.class.getSimpleName()).build()).run();
+    }
+}
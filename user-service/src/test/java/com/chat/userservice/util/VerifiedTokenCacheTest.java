@@ -0,0 +1,45 @@
+package com.chat.userservice.util;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VerifiedTokenCacheTest {
+
+    private static final long HOUR = 3_600_000L;
+
+    @Test
+    void putByDigest_KeepsCachingOnceFull() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(2);
+        for (int i = 0; i < 10; i++) {
+            cache.putByDigest("token-" + i, claims("user" + i, System.currentTimeMillis() + HOUR));
+        }
+
+        assertNotNull(cache.getByDigest("token-9"));
+        cache.evictExpired();
+        assertTrue(cache.size() <= 2);
+    }
+
+    @Test
+    void getByDigest_MissesOnceTheTokenExpires() throws InterruptedException {
+        VerifiedTokenCache cache = new VerifiedTokenCache(10);
+        // exp has whole-second precision
+        cache.putByDigest("short-lived", claims("alice", System.currentTimeMillis() + 2000));
+        cache.putByDigest("expired", claims("bob", System.currentTimeMillis() - 1));
+
+        assertNotNull(cache.getByDigest("short-lived"));
+        assertNull(cache.getByDigest("expired"));
+
+        Thread.sleep(2100);
+
+        assertNull(cache.getByDigest("short-lived"));
+    }
+
+    private static Claims claims(String subject, long expiresAt) {
+        return Jwts.claims().setSubject(subject).setExpiration(new Date(expiresAt));
+    }
+}
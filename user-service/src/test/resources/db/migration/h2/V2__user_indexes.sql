@@ -0,0 +1,7 @@
+-- H2 has no expression or partial indexes; generated columns and a composite index stand in
+ALTER TABLE users ADD COLUMN username_lower VARCHAR(255) GENERATED ALWAYS AS (LOWER(username));
+ALTER TABLE users ADD COLUMN email_lower VARCHAR(255) GENERATED ALWAYS AS (LOWER(email));
+CREATE UNIQUE INDEX ux_users_username_lower ON users (username_lower);
+CREATE UNIQUE INDEX ux_users_email_lower ON users (email_lower);
+
+CREATE INDEX ix_users_active ON users (active, id);
@@ -0,0 +1,8 @@
+CREATE TABLE user_outbox (
+    id          BIGINT       GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    event_type  VARCHAR(64)  NOT NULL,
+    user_id     BIGINT,
+    username    VARCHAR(255),
+    payload     CLOB         NOT NULL,
+    created_at  TIMESTAMP(6) NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
@@ -0,0 +1,7 @@
+CREATE TABLE revoked_tokens (
+    id          BIGINT       GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    token_hash  VARCHAR(64)  NOT NULL,
+    expires_at  TIMESTAMP(6) NOT NULL
+);
+
+CREATE INDEX ix_revoked_tokens_expires_at ON revoked_tokens (expires_at);
@@ -0,0 +1,8 @@
+CREATE TABLE user_outbox_relay_lease (
+    id          INT          PRIMARY KEY,
+    owner       VARCHAR(64)  NOT NULL,
+    expires_at  TIMESTAMP(6) NOT NULL
+);
+
+INSERT INTO user_outbox_relay_lease (id, owner, expires_at)
+VALUES (1, '', TIMESTAMP '1970-01-01 00:00:00');